@@ -0,0 +1,93 @@
+import java.io.IOException; // thrown when a database file cannot be read or written
+import java.nio.file.Files; // used for checking and creating the database files
+import java.nio.file.Path; // used for the location of the database files
+
+// A heuristic made of the pattern databases (see the PatternDatabase class) of disjoint groups of tiles.
+// A move only moves one tile, so it is counted by at most one of the databases and the sum of their
+// distances is still a lower bound of the solution length. It is much tighter than the manhattan distance
+// because each database also counts the moves needed to get the tiles of its group past each other.
+public class AdditivePatternDatabase {
+	// Partitions of the tiles for the standard goal (tile t on cell t - 1, the empty cell last)
+	public static final int[][] EIGHT_4_4 = { { 1, 2, 3, 4 }, { 5, 6, 7, 8 } };
+	// 3 x 524,160 entries, created in seconds
+	public static final int[][] FIFTEEN_5_5_5 = { { 1, 2, 3, 5, 6 }, { 4, 7, 8, 11, 12 }, { 9, 10, 13, 14, 15 } };
+	// 57,657,600 + 518,918,400 entries, creating the 8 tile database needs about 1 GB for the search
+	public static final int[][] FIFTEEN_7_8 = { { 1, 2, 3, 4, 5, 6, 7 }, { 8, 9, 10, 11, 12, 13, 14, 15 } };
+	// 4 x 127,512,000 entries, creating each database needs about 400 MB for the search
+	public static final int[][] TWENTY_FOUR_6_6_6_6 = { { 1, 2, 5, 6, 7, 12 }, { 3, 4, 8, 9, 13, 14 },
+			{ 10, 11, 15, 16, 20, 21 }, { 17, 18, 19, 22, 23, 24 } };
+
+	private final PatternDatabase[] databases; // one database for each group of tiles
+
+	// A constructor that combines the databases of disjoint groups of tiles
+	public AdditivePatternDatabase(PatternDatabase... databases) {
+		this.databases = databases;
+	}
+
+	// A method that returns the partition used by default for a board width
+	public static int[][] defaultPartition(int width) {
+		switch (width) {
+		case 3:
+			return EIGHT_4_4;
+		case 4:
+			return FIFTEEN_5_5_5;
+		case 5:
+			return TWENTY_FOUR_6_6_6_6;
+		default:
+			throw new IllegalArgumentException("No pattern database partition for width " + width);
+		}
+	}
+
+	// A method that creates the databases of a partition in memory
+	public static AdditivePatternDatabase build(int width, int[] goalCells, int[][] partition) {
+		PatternDatabase[] databases = new PatternDatabase[partition.length];
+		for (int i = 0; i < partition.length; i++)
+			databases[i] = PatternDatabase.build(width, goalCells, partition[i]);
+		return new AdditivePatternDatabase(databases);
+	}
+
+	// A method that loads the databases of a partition from a directory, the missing ones (or the ones saved
+	// for another goal) are created and saved there so that the next run can skip the search
+	public static AdditivePatternDatabase loadOrBuild(Path directory, int width, int[] goalCells, int[][] partition)
+			throws IOException {
+		Files.createDirectories(directory);
+		PatternDatabase[] databases = new PatternDatabase[partition.length];
+		for (int i = 0; i < partition.length; i++) {
+			Path file = directory.resolve(fileName(width, partition[i]));
+			if (Files.exists(file)) {
+				PatternDatabase loaded = PatternDatabase.load(file);
+				if (loaded.matches(width, goalCells, partition[i]))
+					databases[i] = loaded;
+			}
+			if (databases[i] == null) {
+				databases[i] = PatternDatabase.build(width, goalCells, partition[i]);
+				databases[i].save(file);
+			}
+		}
+		return new AdditivePatternDatabase(databases);
+	}
+
+	// A method that returns the heuristic value, tileCells holds the cell of every tile number
+	public int estimate(int[] tileCells) {
+		int heuristic = 0;
+		for (PatternDatabase database : databases)
+			heuristic += database.distance(tileCells);
+		return heuristic;
+	}
+
+	// A method that checks if the databases were created for the given board width and goal
+	public boolean matches(int width, int[] goalCells) {
+		for (PatternDatabase database : databases)
+			if (!database.matches(width, goalCells, database.getTiles()))
+				return false;
+		return true;
+	}
+
+	// An inner method that returns the file name of a database, such as "pdb-4x4-1-2-3-5-6.bin"
+	private static String fileName(int width, int[] tiles) {
+		StringBuilder name = new StringBuilder("pdb-" + width + "x" + width);
+		for (int tile : tiles)
+			name.append('-').append(tile);
+		return name.append(".bin").toString();
+	}
+}
@@ -1,72 +1,664 @@
 import java.util.*; //used to import necessary classes from existing packages and use them
+import java.util.concurrent.CancellationException; // thrown when a search is interrupted or runs past its deadline
 
 public class Alg {
+	// The open set implementations that the solver can use
+	public static final int QUEUE_HEAP = 0; // an indexed binary heap (see the IndexedHeap class)
+	public static final int QUEUE_BUCKET = 1; // an array of buckets indexed by f (see the BucketQueue class)
+
+	// The heuristic id that selects the additive pattern database (0 and 1 are misplaced tiles and manhattan distance)
+	public static final int HEURISTIC_PATTERN_DATABASE = 2;
+	// The heuristic id that selects manhattan distance with linear conflicts
+	public static final int HEURISTIC_LINEAR_CONFLICT = 3;
+
+	// The solvers that solveWith can run
+	public static final int SOLVER_A_STAR = 0; // A* on packed states (see the solve method)
+	public static final int SOLVER_IDA_STAR = 1; // IDA* on a board changed in place (see the solveIDA method)
+	public static final int SOLVER_PARALLEL_A_STAR = 2; // hash distributed A* (see the ParallelAStar class)
+	public static final int SOLVER_PARALLEL_IDA_STAR = 3; // IDA* with fork/join subtrees (see the ParallelIDAStar class)
+	public static final int SOLVER_BIDIRECTIONAL = 4; // A* from both ends (see the BidirectionalAStar class)
+
+	// The value stored for the initial state, which is not reached by any move
+	static final int NO_MOVE = -1;
+	// Values returned by the IDA* search when the goal is found or when no bound can be exceeded
+	private static final int FOUND = -1;
+	private static final int INFINITY = Integer.MAX_VALUE;
+	// The number of expansions between two checks of the deadline and of the interrupt flag
+	static final int CANCEL_CHECK_INTERVAL = 1024;
+	// The deadline value of the searches that have no time limit
+	public static final long NO_DEADLINE = Long.MIN_VALUE;
+	// The first weight of the heuristic in solveAnytime and the amount it is lowered by after each solution
+	public static final double ANYTIME_INITIAL_WEIGHT = 3;
+	public static final double ANYTIME_WEIGHT_STEP = 0.5;
+	// The weights of solveAnytime are fixed point numbers with this scale, so that the open set still orders
+	// int keys: a state is queued with the cost cost * WEIGHT_SCALE and the heuristic heuristic * weight
+	private static final int WEIGHT_SCALE = 100;
+	// The closed set of the last search, kept to report its size and probe statistics
+	private StateTable closedSet;
+	// The parallel search of the last solveParallel call, kept to report the work of each thread
+	private ParallelAStar parallelSearch;
+	// The number of threads used by the parallel solvers when solveWith selects them
+	private int threads = Runtime.getRuntime().availableProcessors();
+	// The System.nanoTime value at which the searches give up, or NO_DEADLINE
+	private long deadline = NO_DEADLINE;
+	// The number of states expanded by the last search
+	private long expandedNodes;
+	// The number of nodes dropped by the last solveMemoryBounded call to stay within its budget
+	private long prunedNodes;
+	// The pattern databases used by the heuristic HEURISTIC_PATTERN_DATABASE
+	private AdditivePatternDatabase patternDatabase;
+	// The cell of every tile number of the state whose pattern database heuristic is calculated
+	private int[] tileCells;
+	// The state of the IDA* search: the board that is changed in place, the tile of each of its cells,
+	// the heuristic table and the moves on the current path
+	private Board searchBoard;
+	private int[] searchCells;
+	private int searchWidth;
+	private int[] heuristicTable;
+	private int[] pathMoves;
+	private int[] searchGoalCells;
+	private int[] searchGoalPositions;
+	private int searchHeuristic;
+
+	// A listener that receives each better solution found by solveAnytime as soon as it is found, with the proven
+	// bound on how far it is from the optimum: it has at most bound times the moves of an optimal solution (1 when
+	// it is optimal). The last solution is given again with the bound 1 when it is proven optimal later.
+	public interface SolutionListener {
+		void improved(Solution solution, double bound);
+	}
+
 	// Algorithm that creates the solution
-	public List<Board> solve(Board initial, Board goal,int n) {
-		// Create a priority queue for open set and compare them by the sum of cost + heuristic
-		PriorityQueue<Board> openSet = new PriorityQueue<>(
-				Comparator.comparingInt(b -> b.getCost() + b.getHeuristic()));
+	public Solution solve(Board initial, Board goal,int n) {
+		return solve(initial, goal, n, QUEUE_HEAP);
+	}
 
-		// Set for the closed set to track already evaluated nodes
-		Set<Board> closedSet = new HashSet<>();
+	// Algorithm that creates the solution by using the given open set implementation. The states are
+	// packed into longs, so it supports boards up to 4 x 4 (solveIDA also solves larger boards).
+	public Solution solve(Board initial, Board goal, int n, int queue) {
+		PackedState layout = layoutOf(initial);
+		long goalState = goal.toPackedState();
+		if (n == HEURISTIC_PATTERN_DATABASE) {
+			// Use the pattern databases of this solver, so that the ones given to setPatternDatabase are kept
+			preparePatternDatabase(layout.getWidth(), layout.goalPositions(goalState), n);
+			return solve(initial, goal, (l, g) -> new PatternDatabaseHeuristic(l, patternDatabase), queue);
+		}
+		return solve(initial, goal, Heuristics.byId(n), queue);
+	}
+
+	// Algorithm that creates the solution with a heuristic created by the given factory (for example one of
+	// the Heuristics registry)
+	public Solution solve(Board initial, Board goal, Heuristic.Factory heuristics) {
+		return solve(initial, goal, heuristics, QUEUE_HEAP);
+	}
 
-		// Set the cost and heuristics of initial state
-		initial.setCost(0);
-		initial.setHeuristic(initial.calculateHeuristic(goal, n));
+	// Algorithm that creates the solution with a heuristic created by the given factory and the given open set
+	// implementation
+	public Solution solve(Board initial, Board goal, Heuristic.Factory heuristics, int queue) {
+		// Pack the goal once, the search itself only works on packed states (see the PackedState class)
+		PackedState layout = layoutOf(initial);
+		closedSet = null;
+		expandedNodes = 0;
+		// The search would close every reachable state before it gave up, which does not fit in memory on the
+		// 4 x 4 board, so a board that can not reach the goal is answered right away
+		if (!canReach(initial, goal)) {
+			return null;
+		}
+		long goalState = goal.toPackedState();
+		Heuristic heuristic = heuristics.create(layout, goalState);
 
-		// Add the initial state to the open set
-		openSet.add(initial);
+		// Create the open set that orders the states by the sum of cost + heuristic
+		OpenList openSet = queue == QUEUE_BUCKET ? new BucketQueue(1 << 12) : new IndexedHeap(1 << 12);
+
+		// Hash table of packed states for the closed set to track already evaluated states, it also stores
+		// their cost and the move that reached them so that the path can be rebuilt (see closedEntry)
+		closedSet = new StateTable(1 << 12);
+
+		// Add the initial state to the open set with its cost and heuristic
+		long initialState = initial.toPackedState();
+		openSet.push(initialState, 0, heuristic.estimate(initialState), NO_MOVE);
 		// A loop that continues till the open set is empty
 		while (!openSet.isEmpty()) {
-			Board current = openSet.poll(); // Node in open set having the lowest f(n)
+			// State in open set having the lowest f(n)
+			int cost = openSet.peekCost();
+			int currentHeuristic = openSet.peekHeuristic();
+			int lastMove = openSet.peekMove();
+			long current = openSet.pop();
 
-			// 	Reconstructs the path if the current node is goal node
-			if (current.equals(goal)) {
-				return reconstructPath(current); 
+			// Add the current state to closed list
+			closedSet.put(current, closedEntry(cost, lastMove));
+			expandedNodes++;
+			if ((expandedNodes & (CANCEL_CHECK_INTERVAL - 1)) == 0) {
+				checkCancelled(Thread.currentThread(), deadline);
+			}
+			// 	Reconstructs the path if the current state is goal state
+			if (current == goalState) {
+				return reconstructPath(layout, current);
 			}
-			// Add the current board to closed list
-			closedSet.add(current);
 
-			// A loop that searches for each neighbor of the current node
-			for (Board neighbor : current.getNeighbors()) {
-				if (closedSet.contains(neighbor)) {
-					continue; // Ignore the neighbor which is already evaluated
+			// A loop that searches for each neighbor of the current state
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				long neighbor = layout.move(current, move);
+				if (neighbor == PackedState.NONE) {
+					continue; // Ignore the impossible moves
 				}
 				// Calculate the distance from start to neighbor
-				int gScore = current.getCost() + 1;
-				// When a new node is discovered, add it to open list
-				if (!openSet.contains(neighbor)) {
-					openSet.add(neighbor);
-				} 
-				// If gScore is larger than previous cost, ignore this because it is not a better path
-				else if (gScore >= neighbor.getCost()) {
+				int gScore = cost + 1;
+				// Ignore the neighbors which are already evaluated, unless this path is shorter. The built-in
+				// heuristics are consistent (a move changes them by at most 1), so that never happens with them,
+				// but a heuristic added to the Heuristics registry only has to be admissible, and then a state can
+				// be reached by a shorter path after it was evaluated. It is evaluated again so that the solution
+				// stays optimal
+				int closed = closedSet.get(neighbor, -1);
+				if (closed >= 0 && closedCost(closed) <= gScore) {
 					continue;
 				}
-				// This path is the best one so record its values
-				neighbor.setParent(current);
-				neighbor.setCost(gScore);
-				neighbor.setHeuristic(neighbor.calculateHeuristic(goal,n));
+				// When a new state is discovered, add it to open list. If it is already queued, the heap only
+				// keeps the new path when gScore is smaller than the previous cost (decrease-key)
+				int queuedCost = openSet.costOf(neighbor);
+				if (queuedCost < 0 || gScore < queuedCost) {
+					// Update the parent's heuristic, in constant time for the table heuristics
+					int neighborHeuristic = heuristic.update(current, neighbor, currentHeuristic);
+					openSet.push(neighbor, gScore, neighborHeuristic, move);
+				}
 			}
 		}
 
 		return null; // When no solution is found
 	}
 
-	// Reconstructs the solution path
-	private List<Board> reconstructPath(Board current) {
-		List<Board> totalPath = new ArrayList<>();
-		// A loop to fill path until there are no current
-		while (current != null) {
-			totalPath.add(current);
-			current = current.getParent(); // Move backwards from goal to initial state
+	// Algorithm that keeps improving a solution until the deadline (see setDeadline) or until it is proven optimal,
+	// with the default weights of solveAnytime
+	public Solution solveAnytime(Board initial, Board goal, Heuristic.Factory heuristics, SolutionListener listener) {
+		return solveAnytime(initial, goal, heuristics, ANYTIME_INITIAL_WEIGHT, ANYTIME_WEIGHT_STEP, listener);
+	}
+
+	// Algorithm that keeps improving a solution until the deadline (see setDeadline) or until it is proven optimal
+	// (Anytime Repairing A*). Each phase runs A* on f = cost + weight * heuristic, which finds a solution with at
+	// most weight times the optimal number of moves while expanding far fewer states, then the weight is lowered
+	// by weightStep until it reaches 1. The phases share the open and closed sets: the open set is only ordered
+	// again with the new weight, and the states whose cost dropped after they were expanded in a phase are kept
+	// aside and queued again in the next one, so no state is searched from scratch. Every better solution is
+	// given to the listener with its bound, and the best one is returned when the deadline passes (the search
+	// only throws a CancellationException if it had not found any solution yet). Like solve, it supports boards
+	// up to 4 x 4 and returns null if the board can not be solved.
+	public Solution solveAnytime(Board initial, Board goal, Heuristic.Factory heuristics, double initialWeight,
+			double weightStep, SolutionListener listener) {
+		if (initialWeight < 1 || weightStep <= 0) {
+			throw new IllegalArgumentException("The weight must start at 1 or more and decrease by a positive step");
+		}
+		PackedState layout = layoutOf(initial);
+		// Like solve, a board that can not reach the goal is answered without searching
+		if (!canReach(initial, goal)) {
+			closedSet = null;
+			expandedNodes = 0;
+			return null;
+		}
+		long goalState = goal.toPackedState();
+		Heuristic heuristic = heuristics.create(layout, goalState);
+		int weight = (int) Math.round(initialWeight * WEIGHT_SCALE);
+		int step = Math.max(1, (int) Math.round(weightStep * WEIGHT_SCALE));
+
+		// The open set orders the states by cost * WEIGHT_SCALE + heuristic * weight, the closed set keeps the
+		// cost and the move of every expanded state of all phases so that the solutions can be rebuilt
+		OpenList openSet = new IndexedHeap(1 << 12);
+		closedSet = new StateTable(1 << 12);
+		// The states expanded in the current phase and the ones whose cost dropped after that
+		StateTable phaseClosed = new StateTable(1 << 12);
+		long[] inconsistent = new long[64];
+		int inconsistentCount = 0;
+		expandedNodes = 0;
+
+		long initialState = initial.toPackedState();
+		int initialHeuristic = heuristic.estimate(initialState);
+		openSet.push(initialState, 0, initialHeuristic * weight, NO_MOVE);
+		Solution best = null;
+		double reportedBound = 0; // the bound given to the listener with the best solution
+		try {
+			while (true) {
+				// Expand the states until none of them can lead to a solution better than the best one with
+				// the current weight
+				long bestKey = best == null ? Long.MAX_VALUE : (long) best.getLength() * WEIGHT_SCALE;
+				while (!openSet.isEmpty() && openSet.peekCost() + openSet.peekHeuristic() < bestKey) {
+					int cost = openSet.peekCost() / WEIGHT_SCALE;
+					int currentHeuristic = openSet.peekHeuristic() / weight;
+					int lastMove = openSet.peekMove();
+					long current = openSet.pop();
+
+					closedSet.put(current, closedEntry(cost, lastMove));
+					phaseClosed.add(current);
+					expandedNodes++;
+					if ((expandedNodes & (CANCEL_CHECK_INTERVAL - 1)) == 0) {
+						checkCancelled(Thread.currentThread(), deadline);
+					}
+					if (current == goalState) {
+						// The goal has the lowest key, so the solution has at most weight times the optimal moves
+						best = reconstructPath(layout, current);
+						bestKey = (long) best.getLength() * WEIGHT_SCALE;
+						reportedBound = anytimeBound(best, (double) weight / WEIGHT_SCALE, initialHeuristic);
+						listener.improved(best, reportedBound);
+						continue;
+					}
+
+					for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+						long neighbor = layout.move(current, move);
+						if (neighbor == PackedState.NONE) {
+							continue;
+						}
+						int gScore = cost + 1;
+						int closed = closedSet.get(neighbor, -1);
+						if (closed >= 0 && closedCost(closed) <= gScore) {
+							continue;
+						}
+						int queuedCost = openSet.costOf(neighbor);
+						if (queuedCost >= 0 && queuedCost <= gScore * WEIGHT_SCALE) {
+							continue;
+						}
+						if (weight > WEIGHT_SCALE && closed >= 0 && phaseClosed.contains(neighbor)) {
+							// The state was already expanded in this phase: keep the shorter path and expand it
+							// again in the next phase (the last phase, with weight 1, expands it right away)
+							closedSet.put(neighbor, closedEntry(gScore, move));
+							if (inconsistentCount == inconsistent.length) {
+								inconsistent = Arrays.copyOf(inconsistent, inconsistentCount * 2);
+							}
+							inconsistent[inconsistentCount++] = neighbor;
+						} else {
+							int neighborHeuristic = heuristic.update(current, neighbor, currentHeuristic);
+							openSet.push(neighbor, gScore * WEIGHT_SCALE, neighborHeuristic * weight, move);
+						}
+					}
+				}
+
+				if (best == null) {
+					return null; // Every reachable state was expanded without finding the goal
+				}
+				// The phase ended, so the best solution is optimal after the phase with weight 1 or when no state is
+				// left to expand
+				boolean optimal = weight == WEIGHT_SCALE || openSet.isEmpty() && inconsistentCount == 0;
+				if (optimal) {
+					if (reportedBound > 1) {
+						listener.improved(best, 1);
+					}
+					return best;
+				}
+
+				// Lower the weight and queue the states again: the ones in the open set with their new keys and
+				// the ones whose cost dropped after they were expanded
+				int previousWeight = weight;
+				weight = Math.max(WEIGHT_SCALE, weight - step);
+				int queued = openSet.size();
+				long[] states = new long[queued];
+				int[] costs = new int[queued];
+				int[] stateHeuristics = new int[queued];
+				int[] moves = new int[queued];
+				for (int i = 0; i < queued; i++) {
+					costs[i] = openSet.peekCost();
+					stateHeuristics[i] = openSet.peekHeuristic() / previousWeight;
+					moves[i] = openSet.peekMove();
+					states[i] = openSet.pop();
+				}
+				for (int i = 0; i < queued; i++) {
+					openSet.push(states[i], costs[i], stateHeuristics[i] * weight, moves[i]);
+				}
+				for (int i = 0; i < inconsistentCount; i++) {
+					int entry = closedSet.get(inconsistent[i], -1);
+					openSet.push(inconsistent[i], closedCost(entry) * WEIGHT_SCALE,
+							heuristic.estimate(inconsistent[i]) * weight, closedMove(entry));
+				}
+				inconsistentCount = 0;
+				phaseClosed.clear();
+			}
+		} catch (CancellationException e) {
+			if (best == null) {
+				throw e;
+			}
+			return best; // The deadline passed or the thread was interrupted, keep the best solution found
+		}
+	}
+
+	// An inner method that returns the bound of a solution of solveAnytime: the weight of the phase that found it,
+	// or its length over the heuristic of the initial state when that is lower
+	private static double anytimeBound(Solution solution, double weight, int initialHeuristic) {
+		if (initialHeuristic > 0) {
+			return Math.min(weight, (double) solution.getLength() / initialHeuristic);
+		}
+		return weight;
+	}
+
+	// Algorithm that creates the solution with memory-bounded A* (see the MemoryBoundedAStar class), which keeps at
+	// most maxNodes nodes (MemoryBoundedAStar.nodesFor turns a number of bytes into nodes). When the budget is used
+	// up, it drops the worst leaves instead of running out of heap, getPrunedNodes tells how often. The solution
+	// is optimal if the budget can hold its path, otherwise it returns null, as it does when the board can not
+	// be solved. Like solve, it supports boards up to 4 x 4.
+	public Solution solveMemoryBounded(Board initial, Board goal, Heuristic.Factory heuristics, long maxNodes) {
+		PackedState layout = layoutOf(initial);
+		long goalState = goal.toPackedState();
+		MemoryBoundedAStar search = new MemoryBoundedAStar(layout, goalState, heuristics.create(layout, goalState),
+				maxNodes);
+		closedSet = null;
+		expandedNodes = 0;
+		prunedNodes = 0;
+		// The search keeps no closed set, so it could not tell that the goal is unreachable (see canReach)
+		if (!canReach(initial, goal)) {
+			return null;
+		}
+		search.setDeadline(deadline);
+		Solution solution = search.solve(initial.toPackedState());
+		expandedNodes = search.getExpandedNodes();
+		prunedNodes = search.getPrunedNodes();
+		return solution;
+	}
+
+	// Algorithm that creates the solution with the selected solver (one of the SOLVER_ constants), the parallel
+	// solvers use the number of threads given to setThreads
+	public Solution solveWith(int solver, Board initial, Board goal, int n) {
+		switch (solver) {
+		case SOLVER_A_STAR:
+			return solve(initial, goal, n);
+		case SOLVER_IDA_STAR:
+			return solveIDA(initial, goal, n);
+		case SOLVER_PARALLEL_A_STAR:
+			return solveParallel(initial, goal, n, threads);
+		case SOLVER_PARALLEL_IDA_STAR:
+			return solveParallelIDA(initial, goal, n, threads);
+		case SOLVER_BIDIRECTIONAL:
+			return solveBidirectional(initial, goal, n);
+		default:
+			throw new IllegalArgumentException("Unknown solver " + solver);
 		}
-		Collections.reverse(totalPath); // Reverse the path to start from the initial state
-		return totalPath;
 	}
-	// A method to calculate if a board is solvable
+
+	// Algorithm that creates the solution with hash distributed A* on the given number of threads (see the
+	// ParallelAStar class). Like solve, it finds an optimal solution and supports boards up to 4 x 4.
+	public Solution solveParallel(Board initial, Board goal, int n, int threads) {
+		PackedState layout = layoutOf(initial);
+		// Like solve, a board that can not reach the goal is answered without searching
+		if (!canReach(initial, goal)) {
+			parallelSearch = null;
+			closedSet = null;
+			expandedNodes = 0;
+			return null;
+		}
+		long goalState = goal.toPackedState();
+		preparePatternDatabase(layout.getWidth(), layout.goalPositions(goalState), n);
+		parallelSearch = new ParallelAStar(layout, goalState, n, patternDatabase, QUEUE_HEAP, threads);
+		parallelSearch.setDeadline(deadline);
+		closedSet = null;
+		Solution solution = parallelSearch.solve(initial.toPackedState());
+		expandedNodes = parallelSearch.getExpandedNodes();
+		return solution;
+	}
+
+	// Algorithm that creates the solution with A* from both the initial state and the goal (see the
+	// BidirectionalAStar class). Like solve, it finds an optimal solution and supports boards up to 4 x 4.
+	public Solution solveBidirectional(Board initial, Board goal, int n) {
+		PackedState layout = layoutOf(initial);
+		// Like solve, a board that can not reach the goal is answered without searching
+		if (!canReach(initial, goal)) {
+			closedSet = null;
+			expandedNodes = 0;
+			return null;
+		}
+		long goalState = goal.toPackedState();
+		preparePatternDatabase(layout.getWidth(), layout.goalPositions(goalState), n);
+		BidirectionalAStar search = new BidirectionalAStar(layout, initial.toPackedState(), goalState, n, patternDatabase);
+		search.setDeadline(deadline);
+		closedSet = null;
+		Solution solution = search.solve();
+		expandedNodes = search.getExpandedNodes();
+		return solution;
+	}
+
+	// Algorithm that creates the solution with IDA* on the given number of threads (see the ParallelIDAStar
+	// class). Like solveIDA, it finds an optimal solution and works for boards of any size.
+	public Solution solveParallelIDA(Board initial, Board goal, int n, int threads) {
+		preparePatternDatabase(goal.getSize(), cellsOfTiles(goal.getCurrentState()), n);
+		ParallelIDAStar search = new ParallelIDAStar(goal, n, patternDatabase, threads);
+		search.setDeadline(deadline);
+		closedSet = null;
+		Solution solution = search.solve(initial);
+		expandedNodes = search.getExpandedNodes();
+		return solution;
+	}
+
+	// Algorithm that creates the solution with Iterative Deepening A* (IDA*). Instead of storing every
+	// generated state, it runs depth-first searches on a single board that is changed in place, each with a
+	// larger bound on cost + heuristic, so memory only grows with the depth of the solution. Nothing is
+	// packed, so it works for boards of any size. Like solve, it returns null if the board can not be solved.
+	public Solution solveIDA(Board initial, Board goal, int n) {
+		Heuristics.byId(n); // Reject the ids that have no heuristic, like solve does
+		expandedNodes = 0;
+		closedSet = null;
+		// Every iteration would search the whole tree again with a larger bound, so a board that can not reach
+		// the goal is answered right away (see canReach)
+		if (!canReach(initial, goal)) {
+			return null;
+		}
+		searchBoard = new Board(initial.getCurrentState()); // Work on a copy so the initial board is not moved
+		searchWidth = initial.getSize();
+		searchCells = searchBoard.getCurrentState();
+		searchGoalCells = goal.getCurrentState();
+		searchGoalPositions = cellsOfTiles(searchGoalCells);
+		heuristicTable = PackedState.heuristicTable(searchWidth, searchGoalPositions, n);
+		tileCells = cellsOfTiles(searchCells);
+		preparePatternDatabase(searchWidth, searchGoalPositions, n);
+
+		// Calculate the heuristic of the initial state, the moves update it from here on
+		int heuristic = 0;
+		for (int cell = 0; cell < searchCells.length; cell++) {
+			heuristic += heuristicTable[searchCells[cell] * searchCells.length + cell];
+		}
+		if (n == HEURISTIC_PATTERN_DATABASE) {
+			heuristic = patternDatabase.estimate(tileCells);
+		} else if (n == HEURISTIC_LINEAR_CONFLICT) {
+			heuristic += LinearConflict.count(searchCells, searchWidth, searchGoalPositions);
+		}
+		searchHeuristic = n;
+		// A loop that repeats the depth-first search with the smallest f that exceeded the previous bound
+		int bound = heuristic;
+		while (true) {
+			pathMoves = new int[bound];
+			int result = search(0, heuristic, bound, NO_MOVE);
+			if (result == FOUND) {
+				return Solution.of(initial, pathMoves);
+			}
+			if (result == INFINITY) {
+				return null; // When no solution is found
+			}
+			bound = result;
+		}
+	}
+
+	// An inner method for the depth-first search of IDA*, returns FOUND or the smallest f above the bound
+	private int search(int cost, int heuristic, int bound, int lastMove) {
+		int f = cost + heuristic;
+		if (f > bound) {
+			return f;
+		}
+		// The heuristics are 0 on the goal state, so the cells are only compared with the goal when it is 0
+		if (heuristic == 0 && Arrays.equals(searchCells, searchGoalCells)) {
+			pathMoves = Arrays.copyOf(pathMoves, cost);
+			return FOUND;
+		}
+		expandedNodes++;
+		if ((expandedNodes & (CANCEL_CHECK_INTERVAL - 1)) == 0) {
+			checkCancelled(Thread.currentThread(), deadline);
+		}
+		int min = INFINITY;
+		int cells = searchCells.length;
+		int emptyCell = searchBoard.getEmptyCellRow() * searchWidth + searchBoard.getEmptyCellCol();
+		for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+			// Skip the move that undoes the previous one, it leads back to the parent
+			if (lastMove != NO_MOVE && move == (lastMove ^ 1) || !applyMove(searchBoard, move)) {
+				continue;
+			}
+			// The moved tile is now on the old empty cell, only its own heuristic entry changes
+			int newEmptyCell = searchBoard.getEmptyCellRow() * searchWidth + searchBoard.getEmptyCellCol();
+			int tile = searchCells[newEmptyCell];
+			tileCells[tile] = emptyCell;
+			tileCells[0] = newEmptyCell;
+			int newHeuristic;
+			if (searchHeuristic == HEURISTIC_PATTERN_DATABASE) {
+				newHeuristic = patternDatabase.estimate(tileCells);
+			} else {
+				newHeuristic = heuristic - heuristicTable[tile * cells + newEmptyCell] + heuristicTable[tile * cells + emptyCell];
+				if (searchHeuristic == HEURISTIC_LINEAR_CONFLICT) {
+					newHeuristic += LinearConflict.delta(searchCells, searchWidth, newEmptyCell, emptyCell, searchGoalPositions);
+				}
+			}
+			searchCells[emptyCell] = tile;
+			searchCells[newEmptyCell] = 0;
+			pathMoves[cost] = move;
+			int result = search(cost + 1, newHeuristic, bound, move);
+			if (result == FOUND) {
+				return FOUND;
+			}
+			applyMove(searchBoard, move ^ 1); // Undo the move before trying the next one
+			searchCells[newEmptyCell] = tile;
+			searchCells[emptyCell] = 0;
+			tileCells[tile] = newEmptyCell;
+			tileCells[0] = emptyCell;
+			min = Math.min(min, result);
+		}
+		return min;
+	}
+
+	// A method that moves the empty cell of a board in place, returns false if it cannot be moved
+	static boolean applyMove(Board board, int move) {
+		switch (move) {
+		case PackedState.UP:
+			return board.moveUp();
+		case PackedState.DOWN:
+			return board.moveDown();
+		case PackedState.LEFT:
+			return board.moveLeft();
+		case PackedState.RIGHT:
+			return board.moveRight();
+		default:
+			return false;
+		}
+	}
+
+	// A getter for the number of states expanded by the last search
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	// A getter for the number of nodes dropped by the last solveMemoryBounded call
+	public long getPrunedNodes() {
+		return prunedNodes;
+	}
+
+	// A setter for the System.nanoTime value at which every solver gives up by throwing a CancellationException
+	// (NO_DEADLINE removes the limit). The solvers also give up when the thread that called them is interrupted.
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// A method that throws a CancellationException if the thread that runs a search is interrupted or if the
+	// deadline has passed, the searches call it every CANCEL_CHECK_INTERVAL expansions
+	static void checkCancelled(Thread caller, long deadline) {
+		if (caller.isInterrupted()) {
+			throw new CancellationException("The search was interrupted");
+		}
+		if (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0) {
+			throw new CancellationException("The search ran past its deadline");
+		}
+	}
+
+	// A setter for the pattern databases used by the heuristic HEURISTIC_PATTERN_DATABASE (for example loaded
+	// from disk with AdditivePatternDatabase.loadOrBuild), otherwise they are taken from the shared cache of
+	// PatternDatabaseHeuristic when needed
+	public void setPatternDatabase(AdditivePatternDatabase patternDatabase) {
+		this.patternDatabase = patternDatabase;
+	}
+
+	// An inner method that takes the default pattern databases from the shared cache of PatternDatabaseHeuristic
+	// if the heuristic needs them and the current ones were not created for this board width and goal
+	private void preparePatternDatabase(int width, int[] goalPositions, int n) {
+		if (n == HEURISTIC_PATTERN_DATABASE && (patternDatabase == null || !patternDatabase.matches(width, goalPositions))) {
+			patternDatabase = PatternDatabaseHeuristic.database(width, goalPositions);
+		}
+	}
+
+	// A method that returns the cell of every tile number of a flattened board (index 0 is the empty cell)
+	static int[] cellsOfTiles(int[] cells) {
+		int[] positions = new int[cells.length];
+		for (int cell = 0; cell < cells.length; cell++) {
+			positions[cells[cell]] = cell;
+		}
+		return positions;
+	}
+
+	// A getter for the closed set of the last search
+	public StateTable getClosedSet() {
+		return closedSet;
+	}
+
+	// A getter for the last parallel search, which reports the expansions of each thread (null if the last
+	// solveParallel call did not search because the board can not reach the goal)
+	public ParallelAStar getParallelSearch() {
+		return parallelSearch;
+	}
+
+	// A setter for the number of threads that solveWith gives to the parallel solvers
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		}
+		this.threads = threads;
+	}
+
+	// An inner method that returns the packed layout of a board, the searches on packed states need it
+	private static PackedState layoutOf(Board initial) {
+		if (initial.getSize() > PackedState.MAX_WIDTH) {
+			throw new IllegalArgumentException("A* only supports boards up to " + PackedState.MAX_WIDTH + " x "
+					+ PackedState.MAX_WIDTH + ", use solveIDA for a " + initial.getSize() + " x " + initial.getSize() + " board");
+		}
+		return PackedState.of(initial.getSize());
+	}
+
+	// Methods that pack the cost of a closed state and the move that reached it into one int and read them back
+	static int closedEntry(int cost, int move) {
+		return cost << 3 | (move + 1);
+	}
+	static int closedCost(int entry) {
+		return entry >>> 3;
+	}
+	static int closedMove(int entry) {
+		return (entry & 7) - 1;
+	}
+
+	// Reconstructs the solution by following the stored moves back from the goal (the boards along it are only
+	// created when the solution is iterated)
+	private Solution reconstructPath(PackedState layout, long current) {
+		int[] moves = new int[32];
+		int length = 0;
+		int move;
+		// A loop to collect the moves from the last one until the initial state (which has no move) is reached
+		while ((move = closedMove(closedSet.get(current, closedEntry(0, NO_MOVE)))) != NO_MOVE) {
+			if (length == moves.length) {
+				moves = Arrays.copyOf(moves, length * 2);
+			}
+			moves[length++] = move;
+			current = layout.move(current, move ^ 1); // Undo the move to go backwards to the previous state
+		}
+		return Solution.ofReversed(layout.decode(current), moves, length);
+	}
+	// An inner method that checks if a board can reach the goal: the boards split into two halves that can not
+	// reach each other, and isSolvable tells which half a board is in
+	private static boolean canReach(Board initial, Board goal) {
+		return isSolvable(initial.getCurrentState()) == isSolvable(goal.getCurrentState());
+	}
+
+	// A method to calculate if a board is solvable (for the goal with the tiles in order and the empty cell last)
 	public static boolean isSolvable(int[] initialState) {
+		int width = (int) Math.round(Math.sqrt(initialState.length));
 		int inversion = 0;
+		int emptyRow = 0;
 		for (int i = 0; i < initialState.length; i++) { // Index of initial state
+			if (initialState[i] == 0) {
+				emptyRow = i / width;
+			}
 			for (int j = i + 1; j < initialState.length; j++) { // Indexes of the steps after the current one
 				// Increases inversion if a tile has a smaller number after them (not counting 0)
 				if (initialState[i] > initialState[j] && initialState[j] != 0) {
@@ -74,7 +666,12 @@ public class Alg {
 				}
 			}
 		}
-		// The board is solvable if the inversion is even
-		return inversion % 2 == 0;
+		// With an odd width the board is solvable if the inversion is even. With an even width a vertical move
+		// jumps over width - 1 tiles, which flips the inversion parity and changes the row of the empty cell, so
+		// the board is solvable if the inversion plus the row of the empty cell counted from the bottom is odd
+		if (width % 2 == 1) {
+			return inversion % 2 == 0;
+		}
+		return (inversion + width - emptyRow) % 2 == 1;
 	}
 }
\ No newline at end of file
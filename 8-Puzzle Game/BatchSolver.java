@@ -0,0 +1,213 @@
+import java.io.BufferedReader; // used for reading the boards line by line
+import java.io.IOException; // thrown when the input cannot be read
+import java.io.InputStreamReader; // used for reading the boards from the standard input
+import java.io.PrintStream; // used for writing the results
+import java.io.UncheckedIOException; // used for passing read errors out of the line stream
+import java.nio.file.Files; // used for reading the boards from a file
+import java.nio.file.Paths; // used for the location of the input file
+import java.util.HashMap; // used for the results that wait for the ones before them
+import java.util.Iterator; // used for taking the boards one by one
+import java.util.Map; // used for the results that wait for the ones before them
+import java.util.concurrent.ExecutionException; // thrown when solving a board fails
+import java.util.concurrent.ExecutorCompletionService; // used for taking the results as they complete
+import java.util.concurrent.ExecutorService; // used for the thread pool
+import java.util.concurrent.Executors; // used for creating the thread pool
+import java.util.function.Consumer; // used for passing the results to the caller
+import java.util.stream.Stream; // used for the input boards
+
+// A solver for many boards at once. The boards are solved independently on a fixed thread pool, where each
+// thread has its own Alg object (the solver keeps the state of its last search), so the throughput grows with
+// the number of cores. The boards are read lazily and only a limited number of them are in progress at a time,
+// so the input can be much larger than the memory. The results are passed to the caller in the order of the
+// input or in the order they complete, always from the calling thread.
+//
+// In a file, every line holds one board as its numbers in row order separated by spaces or commas (0 is the
+// empty cell), the goal is the usual one for its size (see Board.getGoalState). Empty lines and lines that
+// start with # are skipped. The boards can have any width from 2, and the ones wider than PackedState.MAX_WIDTH
+// are solved with IDA* whatever the solver is, as the other solvers can not hold them. Run it with "java BatchSolver boards.txt [threads] [unordered]", or with "-"
+// instead of a file name to read the standard input.
+public class BatchSolver {
+	// The number of boards in progress (or waiting to be passed on in input order) for each thread
+	private static final int BOARDS_PER_THREAD = 16;
+
+	private final int threads; // the size of the thread pool
+	private final int solver; // the solver used for every board, one of the Alg.SOLVER_ constants
+	private final int n; // the heuristic id, as in the Alg class
+	// the solver of each thread of the pool, which takes the pattern databases from the cache shared by every
+	// thread (see PatternDatabaseHeuristic.database)
+	private final ThreadLocal<Alg> solvers = ThreadLocal.withInitial(Alg::new);
+
+	// A constructor for a batch solver with the given number of threads, solver and heuristic
+	public BatchSolver(int threads, int solver, int n) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		this.threads = threads;
+		this.solver = solver;
+		this.n = n;
+	}
+
+	// A method that solves a stream of boards and passes every result to the consumer, in input order if ordered
+	// is true or as soon as it is ready otherwise. It returns when every board has been passed on.
+	public void solve(Stream<int[]> boards, boolean ordered, Consumer<Result> results) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ExecutorCompletionService<Result> completed = new ExecutorCompletionService<>(pool);
+			Iterator<int[]> input = boards.iterator();
+			Map<Long, Result> waiting = new HashMap<>(); // the results that are ready before the ones above them
+			long submitted = 0; // the number of boards given to the pool
+			long passed = 0; // the number of results passed to the consumer
+			int window = threads * BOARDS_PER_THREAD;
+			// A loop that keeps the pool busy until every result has been passed on
+			while (passed < submitted || input.hasNext()) {
+				while (submitted - passed < window && input.hasNext()) {
+					long index = submitted++;
+					int[] board = input.next();
+					completed.submit(() -> solveOne(index, board));
+				}
+				Result result = take(completed);
+				if (!ordered) {
+					results.accept(result);
+					passed++;
+					continue;
+				}
+				waiting.put(result.index, result);
+				while ((result = waiting.remove(passed)) != null) {
+					results.accept(result);
+					passed++;
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	// A method that reads the boards of a file (or of the standard input for "-") and prints every result
+	public void solveFile(String file, boolean ordered, PrintStream out) throws IOException {
+		try (BufferedReader reader = file.equals("-") ? new BufferedReader(new InputStreamReader(System.in))
+				: Files.newBufferedReader(Paths.get(file))) {
+			Stream<int[]> boards = reader.lines().map(String::trim)
+					.filter(line -> !line.isEmpty() && !line.startsWith("#")).map(BatchSolver::parseBoard);
+			solve(boards, ordered, out::println);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// A method that reads a board from a line of numbers separated by spaces or commas
+	public static int[] parseBoard(String line) {
+		String[] numbers = line.trim().split("[\\s,]+");
+		int[] cells = new int[numbers.length];
+		if (numbers.length < 4)
+			throw new IllegalArgumentException("Not a board: " + line);
+		boolean[] seen = new boolean[numbers.length];
+		for (int i = 0; i < numbers.length; i++) {
+			cells[i] = Integer.parseInt(numbers[i]);
+			if (cells[i] < 0 || cells[i] >= numbers.length || seen[cells[i]])
+				throw new IllegalArgumentException("Not a board: " + line);
+			seen[cells[i]] = true;
+		}
+		new Board(cells); // checks that the number of cells is a square
+		return cells;
+	}
+
+	// An inner method that solves one board on the current thread of the pool
+	private Result solveOne(long index, int[] cells) {
+		long start = System.nanoTime();
+		Board board = new Board(cells);
+		if (!Alg.isSolvable(cells))
+			return new Result(index, cells, null, 0, System.nanoTime() - start);
+		Alg alg = solvers.get();
+		// The A* solvers pack the states, so they only take boards up to PackedState.MAX_WIDTH
+		int boardSolver = solver;
+		if (board.getSize() > PackedState.MAX_WIDTH && solver != Alg.SOLVER_PARALLEL_IDA_STAR)
+			boardSolver = Alg.SOLVER_IDA_STAR;
+		Solution solution = alg.solveWith(boardSolver, board, new Board(Board.getGoalState(board.getSize())), n);
+		return new Result(index, cells, solution, alg.getExpandedNodes(), System.nanoTime() - start);
+	}
+
+	// An inner method that waits for the next completed board
+	private static Result take(ExecutorCompletionService<Result> completed) {
+		try {
+			return completed.take().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving the boards", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A board could not be solved", e.getCause());
+		}
+	}
+
+	// The result of one board: its position in the input, its solution (null if the board is not solvable), the
+	// number of expanded states and the time it took
+	public static class Result {
+		private final long index;
+		private final int[] board;
+		private final Solution solution;
+		private final long expandedNodes;
+		private final long nanos;
+
+		private Result(long index, int[] board, Solution solution, long expandedNodes, long nanos) {
+			this.index = index;
+			this.board = board;
+			this.solution = solution;
+			this.expandedNodes = expandedNodes;
+			this.nanos = nanos;
+		}
+
+		// Getters for the data of the result
+		public long getIndex() {
+			return index;
+		}
+
+		public int[] getBoard() {
+			return board.clone();
+		}
+
+		public boolean isSolvable() {
+			return solution != null;
+		}
+
+		public Solution getSolution() {
+			return solution;
+		}
+
+		// The number of moves of the solution, or -1 if the board is not solvable
+		public int getLength() {
+			return solution == null ? -1 : solution.getLength();
+		}
+
+		// The moves of the empty cell (see PackedState.UP to RIGHT), or null if the board is not solvable
+		public int[] getMoves() {
+			return solution == null ? null : solution.getMoves();
+		}
+
+		public long getExpandedNodes() {
+			return expandedNodes;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		// A method that converts the result into a line such as "3 12 57 0.214 ULDRR...": the index, the number
+		// of moves (-1 if not solvable), the expanded states, the time in milliseconds and the moves
+		@Override
+		public String toString() {
+			return index + " " + getLength() + " " + expandedNodes + " " + String.format("%.3f", nanos / 1e6) + " "
+					+ (solution == null ? "" : solution.toString());
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: java BatchSolver <boards file or -> [threads] [unordered]");
+			return;
+		}
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		boolean ordered = args.length <= 2 || !args[2].equals("unordered");
+		BatchSolver batch = new BatchSolver(threads, Alg.SOLVER_A_STAR, Alg.HEURISTIC_LINEAR_CONFLICT);
+		long start = System.nanoTime();
+		batch.solveFile(args[0], ordered, System.out);
+		System.err.printf("Solved in %.1f ms on %d threads%n", (System.nanoTime() - start) / 1e6, threads);
+	}
+}
@@ -0,0 +1,80 @@
+import java.util.Random; // used for creating the boards from a fixed seed
+
+// The boards shared by the benchmarks, so that the results of different runs and different solver
+// settings can be compared with each other. The random boards are created from fixed seeds.
+public final class BenchmarkSet {
+	// The two hardest 8-puzzle boards (31 moves) and a few other deep ones
+	public static final int[][] HARD_EIGHT_PUZZLES = {
+			{ 8, 6, 7, 2, 5, 4, 3, 0, 1 },
+			{ 6, 4, 7, 8, 5, 0, 3, 2, 1 },
+			{ 8, 0, 6, 5, 4, 7, 2, 3, 1 },
+			{ 6, 4, 7, 8, 5, 3, 0, 2, 1 },
+			{ 0, 8, 7, 6, 5, 4, 3, 2, 1 },
+	};
+	// The goal used by all of the boards
+	public static final int[] EIGHT_PUZZLE_GOAL = { 1, 2, 3, 4, 5, 6, 7, 8, 0 };
+	// The goal of the 15-puzzle boards
+	public static final int[] FIFTEEN_PUZZLE_GOAL = Board.getGoalState(4);
+
+	// The class only has static methods, so it is not meant to be instantiated
+	private BenchmarkSet() {
+	}
+
+	// A method that returns solvable 8-puzzle boards shuffled from a fixed seed
+	public static int[][] randomEightPuzzles(long seed, int count) {
+		Random random = new Random(seed);
+		int[][] boards = new int[count][];
+		for (int i = 0; i < count; i++) {
+			int[] cells = new int[9];
+			do {
+				for (int j = 0; j < 9; j++)
+					cells[j] = j;
+				// Fisher-Yates shuffle
+				for (int j = 8; j > 0; j--) {
+					int k = random.nextInt(j + 1);
+					int temp = cells[j];
+					cells[j] = cells[k];
+					cells[k] = temp;
+				}
+			} while (!Alg.isSolvable(cells));
+			boards[i] = cells;
+		}
+		return boards;
+	}
+
+	// A method that returns boards of any width made by random walks of the empty cell from the goal, so they
+	// are always solvable and their solutions need at most the given number of moves. A walk never undoes its
+	// previous move, which keeps most of the boards close to that depth.
+	public static int[][] randomWalks(int width, long seed, int count, int steps) {
+		Random random = new Random(seed);
+		int[][] boards = new int[count][];
+		for (int i = 0; i < count; i++) {
+			Board board = new Board(Board.getGoalState(width));
+			int lastMove = -1;
+			for (int step = 0; step < steps; step++) {
+				int move = random.nextInt(4);
+				if (move == (lastMove ^ 1) || !move(board, move)) {
+					step--;
+					continue;
+				}
+				lastMove = move;
+			}
+			boards[i] = board.getCurrentState();
+		}
+		return boards;
+	}
+
+	// An inner method that moves the empty cell of a board (the moves are numbered as in the PackedState class)
+	private static boolean move(Board board, int move) {
+		switch (move) {
+		case PackedState.UP:
+			return board.moveUp();
+		case PackedState.DOWN:
+			return board.moveDown();
+		case PackedState.LEFT:
+			return board.moveLeft();
+		default:
+			return board.moveRight();
+		}
+	}
+}
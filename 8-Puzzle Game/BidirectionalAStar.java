@@ -0,0 +1,212 @@
+import java.util.Arrays; // used for growing the cost counts and trimming the moves of the solution
+
+// A bidirectional A* search: one A* runs forward from the initial state towards the goal and another one runs
+// backward from the goal towards the initial state (the moves are reversible, so the backward search uses the
+// same moves). Each direction estimates the distance to the opposite end (front-to-end), and the direction with
+// the smaller open set is expanded next. Every direction keeps the best cost and the move of each state it has
+// reached in a StateTable, so a state generated by one direction is looked up in the table of the other one to
+// find where the two searches meet. The cheapest meeting is kept, and the search stops when no path that was
+// not found yet can be cheaper. Such a path costs at least the lowest f of either open set, and since it goes
+// through a queued state of each direction, it also costs at least the sum of their lowest costs plus 1 (this
+// second bound is what keeps the searches small with weak heuristics such as the misplaced tiles).
+// The path is made of the forward chain of moves up to the meeting state and the backward chain after it.
+public class BidirectionalAStar {
+	private final PackedState layout; // the layout of the packed states
+	private final int n; // the heuristic id, as in the Alg class
+	private final Direction forward; // the search from the initial state
+	private final Direction backward; // the search from the goal
+	private long expandedNodes; // the number of states expanded by both directions
+	private long deadline = Alg.NO_DEADLINE; // the System.nanoTime value at which the search gives up
+
+	// A constructor that prepares a search between two packed states. patternDatabase is only used by the heuristic
+	// Alg.HEURISTIC_PATTERN_DATABASE and must be made for the goal; the backward search needs databases made for the
+	// initial state, which are taken from the shared cache of PatternDatabaseHeuristic.
+	public BidirectionalAStar(PackedState layout, long initialState, long goalState, int n,
+			AdditivePatternDatabase patternDatabase) {
+		Heuristics.byId(n); // Reject the ids that have no heuristic, like Alg.solve does
+		this.layout = layout;
+		this.n = n;
+		AdditivePatternDatabase reversePatternDatabase = null;
+		if (n == Alg.HEURISTIC_PATTERN_DATABASE) {
+			reversePatternDatabase = PatternDatabaseHeuristic.database(layout.getWidth(), layout.goalPositions(initialState));
+		}
+		forward = new Direction(initialState, goalState, patternDatabase);
+		backward = new Direction(goalState, initialState, reversePatternDatabase);
+	}
+
+	// A method that runs the search and returns the solution path, or null if there is none.
+	// A search object can only be used once.
+	public Solution solve() {
+		if (forward.start == backward.start) {
+			return Solution.of(layout.decode(forward.start), new int[0]);
+		}
+		int bestCost = Integer.MAX_VALUE; // the cost of the cheapest path found so far
+		long meeting = PackedState.NONE; // the state where that path goes from one search to the other
+		// A loop that continues till one of the open sets is empty (then every path has been found)
+		while (!forward.openSet.isEmpty() && !backward.openSet.isEmpty()) {
+			// Stop when no path through the states that are still queued can be cheaper
+			int lowerBound = Math.max(Math.max(forward.lowestF(), backward.lowestF()),
+					forward.lowestCost() + backward.lowestCost() + 1);
+			if (bestCost <= lowerBound) {
+				break;
+			}
+			// Expand the direction with the smaller frontier, which keeps both searches about the same size
+			Direction direction = forward.openSet.size() <= backward.openSet.size() ? forward : backward;
+			Direction other = direction == forward ? backward : forward;
+			int cost = direction.openSet.peekCost();
+			int heuristic = direction.openSet.peekHeuristic();
+			long current = direction.pop();
+			expandedNodes++;
+			if ((expandedNodes & (Alg.CANCEL_CHECK_INTERVAL - 1)) == 0) {
+				Alg.checkCancelled(Thread.currentThread(), deadline);
+			}
+			// A loop that searches for each neighbor of the current state
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				long neighbor = layout.move(current, move);
+				if (neighbor == PackedState.NONE) {
+					continue; // Ignore the impossible moves
+				}
+				int gScore = cost + 1;
+				// Ignore the neighbors that this direction has already reached on a path that is not longer
+				int reached = direction.reached.get(neighbor, -1);
+				if (reached >= 0 && Alg.closedCost(reached) <= gScore) {
+					continue;
+				}
+				direction.reached.put(neighbor, Alg.closedEntry(gScore, move));
+				direction.push(neighbor, gScore, direction.heuristic(current, neighbor, heuristic), move);
+				// A state that the other direction has reached joins the two searches into a path
+				int otherEntry = other.reached.get(neighbor, -1);
+				if (otherEntry >= 0 && gScore + Alg.closedCost(otherEntry) < bestCost) {
+					bestCost = gScore + Alg.closedCost(otherEntry);
+					meeting = neighbor;
+				}
+			}
+		}
+		if (meeting == PackedState.NONE) {
+			return null; // When no solution is found
+		}
+		return reconstructPath(meeting, bestCost);
+	}
+
+	// A setter for the System.nanoTime value at which the search gives up (see Alg.setDeadline)
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// A getter for the number of states expanded by both directions
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	// A getter for the number of states reached by both directions (a state reached by both is counted twice)
+	public int getReachedStates() {
+		return forward.reached.size() + backward.reached.size();
+	}
+
+	// An inner method that builds the solution by following the forward moves back from the meeting state to the
+	// initial state and the backward moves from the meeting state to the goal (cost is the length of the path)
+	private Solution reconstructPath(long meeting, int cost) {
+		int[] moves = new int[cost];
+		int forwardMoves = 0;
+		long current = meeting;
+		int move;
+		while ((move = Alg.closedMove(forward.reached.get(current, Alg.closedEntry(0, Alg.NO_MOVE)))) != Alg.NO_MOVE) {
+			moves[forwardMoves++] = move;
+			current = layout.move(current, move ^ 1); // Undo the move to go backwards to the previous state
+		}
+		long initialState = current;
+		// Reverse the forward half to start from the initial state
+		for (int i = 0, j = forwardMoves - 1; i < j; i++, j--) {
+			int swap = moves[i];
+			moves[i] = moves[j];
+			moves[j] = swap;
+		}
+		int length = forwardMoves;
+		current = meeting;
+		while ((move = Alg.closedMove(backward.reached.get(current, Alg.closedEntry(0, Alg.NO_MOVE)))) != Alg.NO_MOVE) {
+			moves[length++] = move ^ 1; // The backward search reached this state with move, so undo it
+			current = layout.move(current, move ^ 1);
+		}
+		return Solution.of(layout.decode(initialState), Arrays.copyOf(moves, length));
+	}
+
+	// The open set, the reached states and the heuristic of one direction of the search
+	private class Direction {
+		private final long start; // the state this direction starts from
+		private final long target; // the state this direction searches for
+		private final int[] targetPositions; // the cell of every tile number in the target
+		private final int[] table; // the heuristic of each tile on each cell (see PackedState.heuristicTable)
+		private final AdditivePatternDatabase patternDatabase; // the databases made for the target
+		private final int[] tileCells; // the cell of every tile number, used by the pattern database heuristic
+		private final OpenList openSet = new IndexedHeap(1 << 12);
+		// the best cost of every reached state and the move that reached it (see Alg.closedEntry)
+		private final StateTable reached = new StateTable(1 << 12);
+		// the number of queued states with each cost and the lowest cost that may have queued states
+		private int[] costCounts = new int[64];
+		private int minCost;
+
+		private Direction(long start, long target, AdditivePatternDatabase patternDatabase) {
+			this.start = start;
+			this.target = target;
+			this.targetPositions = layout.goalPositions(target);
+			this.table = layout.heuristicTable(target, n);
+			this.patternDatabase = patternDatabase;
+			this.tileCells = new int[layout.getSize()];
+			reached.put(start, Alg.closedEntry(0, Alg.NO_MOVE));
+			push(start, 0, fullHeuristic(start), Alg.NO_MOVE);
+		}
+
+		// A method that queues a state or lowers its cost, keeping the cost counts up to date
+		private void push(long state, int cost, int heuristic, int move) {
+			int queuedCost = openSet.costOf(state);
+			if (openSet.push(state, cost, heuristic, move)) {
+				if (queuedCost >= 0)
+					costCounts[queuedCost]--;
+				if (cost >= costCounts.length)
+					costCounts = Arrays.copyOf(costCounts, Math.max(cost + 1, costCounts.length << 1));
+				costCounts[cost]++;
+				minCost = Math.min(minCost, cost);
+			}
+		}
+
+		// A method that removes the state with the lowest f and returns it
+		private long pop() {
+			costCounts[openSet.peekCost()]--;
+			return openSet.pop();
+		}
+
+		// A method that returns the lowest f = cost + heuristic of the open set (it must not be empty)
+		private int lowestF() {
+			return openSet.peekCost() + openSet.peekHeuristic();
+		}
+
+		// A method that returns the lowest cost of the queued states (the open set must not be empty)
+		private int lowestCost() {
+			while (costCounts[minCost] == 0)
+				minCost++;
+			return minCost;
+		}
+
+		// A method that returns the heuristic of next, which is one move away from state, updated from the
+		// heuristic of state in constant time as in Alg.solve (the pattern databases are looked up again)
+		private int heuristic(long state, long next, int heuristic) {
+			if (n == Alg.HEURISTIC_PATTERN_DATABASE) {
+				return fullHeuristic(next);
+			}
+			int nextHeuristic = layout.updateHeuristic(table, state, next, heuristic);
+			if (n == Alg.HEURISTIC_LINEAR_CONFLICT) {
+				nextHeuristic += LinearConflict.delta(layout, state, next, targetPositions);
+			}
+			return nextHeuristic;
+		}
+
+		// A method that returns the heuristic of a state from scratch
+		private int fullHeuristic(long state) {
+			if (n == Alg.HEURISTIC_PATTERN_DATABASE) {
+				layout.positions(state, tileCells);
+				return patternDatabase.estimate(tileCells);
+			}
+			return layout.heuristic(state, target, targetPositions, n);
+		}
+	}
+}
@@ -4,9 +4,10 @@ import java.awt.Color; // used for coloring the board
 import java.awt.Point; // used for the positions of the tiles and the empty cell
 
 import java.util.ArrayList; // used for improved list interface
+import java.util.Arrays; // used for hashing the boards that are too large to be packed
 import java.util.List; // used for list interface
 
-//A class that is used for modeling the board in the 8 puzzle.
+//A class that is used for modeling the board in the 8 puzzle (and in the larger n x n sliding puzzles).
 public class Board {
 	
 	// States of the board that will represent which colors should be used in each state
@@ -33,8 +34,10 @@ public class Board {
 
 	// Data fields: the instance variables
 	// --------------------------------------------------------------------------
+	// the number of rows (and columns) of the board
+	private final int size;
 	// a matrix to store the tiles on the board in their current configuration
-	private Tile[][] tiles = new Tile[3][3];
+	private Tile[][] tiles;
 	// the row and the column indexes of the empty cell
 	private int emptyCellRow, emptyCellCol;
 	private int[] initialState; // Represents the starting point of the board
@@ -44,16 +47,24 @@ public class Board {
 	
 	// A constructor that generates a randomized board state
 	public Board() {
-		this(getRandomState());
+		this(getRandomState(3));
 	}
-	// A constructor that generates a board based on a given array
+	// A constructor that generates a randomized board state with the given number of rows and columns
+	public Board(int size) {
+		this(getRandomState(size));
+	}
+	// A constructor that generates a board based on a given array (its length must be a square number)
 	public Board(int[] initialState) {
 		this.initialState = initialState;
+		size = (int) Math.round(Math.sqrt(initialState.length));
+		if (size * size != initialState.length || size < 2)
+			throw new IllegalArgumentException("A board needs a square number of cells, not " + initialState.length);
+		tiles = new Tile[size][size];
 
 		int arrayIndex = 0; // the index of the current number in the numbers array
 		// for each tile in the tile matrix
-		for (int row = 0; row < 3; row++) {
-			for (int col = 0; col < 3; col++) {
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
 				//if it is an empty cell
 				if (initialState[arrayIndex] == 0) { 
 					// assign the row and the column indexes of the empty cell
@@ -72,7 +83,8 @@ public class Board {
 	}
 	// A constructor that copies a board to create a new board state
 	private Board(Tile[][] tiles, int emptyCellRow, int emptyCellCol, int cost, int heuristic, Board parent) {
-		this.tiles = new Tile[3][3];
+		this.size = tiles.length;
+		this.tiles = new Tile[size][size];
 		// for each tile in the tile matrix
 		for (int row = 0; row < tiles.length; row++) {
 			for (int col = 0; col < tiles[row].length; col++) {
@@ -87,13 +99,28 @@ public class Board {
 		this.heuristic = heuristic;
 		this.parent = parent;
 	}
+	// A getter for the number on the tile at the given row and column (0 for the empty cell)
+	public int getTileNumber(int row, int col) {
+		return tiles[row][col] == null ? 0 : tiles[row][col].getNumber();
+	}
+	// A getter for the number of rows (and columns) of the board
+	public int getSize() {
+		return size;
+	}
+	// Getters for the row and the column indexes of the empty cell
+	public int getEmptyCellRow() {
+		return emptyCellRow;
+	}
+	public int getEmptyCellCol() {
+		return emptyCellCol;
+	}
 	// A getter for the initial state
 	public int[] getInitialState() {
 		return initialState;
 	}
 	// A method that puts the current state into a 1D array
 	public int[] getCurrentState() {
-		int[] flattenedArray = new int[9]; // A 1D array that stores the current state matrix
+		int[] flattenedArray = new int[size * size]; // A 1D array that stores the current state matrix
 		int arrayIndex = 0;
 		// for each tile in the tile matrix
 		for (int row = 0; row < tiles.length; row++) {
@@ -104,6 +131,10 @@ public class Board {
 		}
 		return flattenedArray;
 	}
+	// A method that packs the current state into a single long (see the PackedState class), boards up to 4 x 4 fit
+	public long toPackedState() {
+		return PackedState.of(size).encode(getCurrentState());
+	}
 	// A method that creates a new state based on each operation on the current state
 	public static Board getNewState(Board currentState, String operation) {
 		// Create a copy of the current state
@@ -114,6 +145,7 @@ public class Board {
 		case "up":
 			if (newState.moveUp())
 				return newState;
+			break;
 		case "down":
 			if (newState.moveDown())
 				return newState;
@@ -148,39 +180,31 @@ public class Board {
 		}
 		return neighbors;
 	}
-	// A method to calculate heuristic value of a board
+	// A method to calculate heuristic value of a board (0 for misplaced tiles, 1 for manhattan distance, 2 for the
+	// pattern databases and 3 for manhattan distance with linear conflicts, like Alg.solve), the distances are
+	// measured to the cells of the given goal. The ids without a heuristic are rejected (see Heuristics.byId).
 	public int calculateHeuristic(Board goal, int n) {
-		if (n==0) {
-			int heuristic = 0;
-			// for each tile in the tile matrix
-			for (int row = 0; row < tiles.length; row++) {
-				for (int col = 0; col < tiles[row].length; col++) {
-					// Increase the heuristic if only one of the goal or the board is on empty tile
-					if (tiles[row][col] == null || goal.tiles[row][col] == null && tiles[row][col] != goal.tiles[row][col]) {
-						heuristic++;
-					}
-					// Increase the heuristic if the tile numbers of the goal and the board don't match in the same spot
-					else if (tiles[row][col].getNumber() != goal.tiles[row][col].getNumber()) {
-						heuristic++;
-					}
-				}
-			}
-			return heuristic;
-		}
-		else if (n==1) {
-				// for each tile in the tile matrix
-				 for (int i = 0; i < tiles.length; i++) { 
-					 for (int j = 0; j < tiles[i].length; j++) { 
-						 Tile tile = tiles[i][j]; 
-						 if (tile != null) { 
-							 int tileNumber = tile.getNumber();
-							 int goalRow = (tileNumber - 1) / goal.tiles.length;
-							 int goalCol = (tileNumber - 1) % goal.tiles[0].length;
-							 heuristic += Math.abs(i - goalRow) + Math.abs(j - goalCol); } } } 
-				 return heuristic; 
-				}
-		else
-			return 0;
+		Heuristics.byId(n);
+		int[] cells = getCurrentState();
+		int[] goalPositions = new int[cells.length];
+		int[] goalState = goal.getCurrentState();
+		for (int i = 0; i < goalState.length; i++)
+			goalPositions[goalState[i]] = i;
+		if (n == Alg.HEURISTIC_PATTERN_DATABASE)
+			return PatternDatabaseHeuristic.database(size, goalPositions).estimate(Alg.cellsOfTiles(cells));
+		// Add the contribution of each tile on its cell (see PackedState.heuristicTable)
+		int[] table = PackedState.heuristicTable(size, goalPositions, n);
+		int heuristic = 0;
+		for (int i = 0; i < cells.length; i++)
+			heuristic += table[cells[i] * cells.length + i];
+		if (n == Alg.HEURISTIC_LINEAR_CONFLICT)
+			heuristic += LinearConflict.count(cells, size, goalPositions);
+		return heuristic;
+	}
+	// A method to calculate the value of a heuristic created by the given factory (see the Heuristics class),
+	// the board is packed, so it supports boards up to 4 x 4
+	public int calculateHeuristic(Board goal, Heuristic.Factory heuristics) {
+		return heuristics.create(PackedState.of(size), goal.toPackedState()).estimate(toPackedState());
 	}
 	// The method(s) of the Board class
 	// --------------------------------------------------------------------------
@@ -198,19 +222,26 @@ public class Board {
 			}
 		}
 	}
-	// A method that generates a random state
-	private static int[] getRandomState() {
-		int[] numbers = new int[9];
-		for (int i = 0; i < 9; i++)
+	// A method that generates a random state with the given number of rows and columns
+	private static int[] getRandomState(int size) {
+		int[] numbers = new int[size * size];
+		for (int i = 0; i < numbers.length; i++)
 			numbers[i] = i;
 		randomShuffling(numbers);
 		return numbers;
 	}
+	// A method that returns the usual goal state: the tiles in order and the empty cell last
+	public static int[] getGoalState(int size) {
+		int[] numbers = new int[size * size];
+		for (int i = 0; i < numbers.length - 1; i++)
+			numbers[i] = i + 1;
+		return numbers;
+	}
 
 	// A method for moving the empty cell right
 	public boolean moveRight() {
 		// the empty cell cannot go right if it is already at the rightmost column
-		if (emptyCellCol == 2)
+		if (emptyCellCol == size - 1)
 			return false; // return false as the empty cell cannot be moved
 		// replace the empty cell with the tile on its right
 		tiles[emptyCellRow][emptyCellCol] = tiles[emptyCellRow][emptyCellCol + 1];
@@ -252,7 +283,7 @@ public class Board {
 	// A method for moving the empty cell down
 	public boolean moveDown() {
 		// the empty cell cannot go down if it is already at the bottommost row
-		if (emptyCellRow == 2)
+		if (emptyCellRow == size - 1)
 			return false; // return false as the empty cell cannot be moved
 		// replace the empty cell with the tile below it
 		tiles[emptyCellRow][emptyCellCol] = tiles[emptyCellRow + 1][emptyCellCol];
@@ -273,8 +304,8 @@ public class Board {
 		else
 			StdDraw.clear(failBgColor);
 		// for each tile in the tile matrix
-		for (int row = 0; row < 3; row++)
-			for (int col = 0; col < 3; col++) {
+		for (int row = 0; row < size; row++)
+			for (int col = 0; col < size; col++) {
 				// skip the empty cell
 				if (tiles[row][col] == null)
 					continue;
@@ -293,7 +324,7 @@ public class Board {
 		else
 			StdDraw.setPenColor(failBoxColor);
 		StdDraw.setPenRadius(lineThickness);
-		StdDraw.square(2, 2, 1.5);
+		StdDraw.square((size + 1) / 2.0, (size + 1) / 2.0, size / 2.0);
 		StdDraw.setPenRadius(); // reset pen radius to its default value
 	}
 
@@ -301,7 +332,7 @@ public class Board {
 	// with the given row and column indexes
 	private Point getTilePosition(int rowIndex, int columnIndex) {
 		// convert the indexes to the positions in StdDraw
-		int posX = columnIndex + 1, posY = 3 - rowIndex;
+		int posX = columnIndex + 1, posY = size - rowIndex;
 		return new Point(posX, posY);
 	}
 	// A getter that gives the cost
@@ -329,6 +360,8 @@ public class Board {
 		if (o == null || getClass() != o.getClass())
 			return false;
 		Board board = (Board) o;
+		if (size != board.size)
+			return false;
 	    // for each tile in the tile matrix
 		for (int row = 0; row < tiles.length; row++) {
 			for (int col = 0; col < tiles[row].length; col++) {
@@ -343,5 +376,10 @@ public class Board {
 		}
 		return true;
 	}
+	// A hash code that is consistent with equals, so boards can be used in hash based collections
+	@Override
+	public int hashCode() {
+		return size <= PackedState.MAX_WIDTH ? PackedState.hash(toPackedState()) : Arrays.hashCode(getCurrentState());
+	}
 
 }
\ No newline at end of file
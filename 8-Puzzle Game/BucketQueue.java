@@ -0,0 +1,152 @@
+import java.util.Arrays; // used for growing the bucket arrays
+
+// An open set for unit-cost search built as an array of buckets instead of a heap. Every move costs 1 and
+// the heuristics are small integers, so f = cost + heuristic only takes a narrow range of values: the
+// states are stored in buckets indexed by f and, inside each f, by the heuristic (ties go to the smaller
+// heuristic). Each bucket is a stack, so push and pop are O(1) apart from moving the f/heuristic pointers.
+// A cheaper path to a queued state is pushed as a new entry; the old entry becomes stale and is dropped
+// when it reaches the top, which is detected through the best cost of each state kept in a StateTable.
+public class BucketQueue implements OpenList {
+	// the buckets, indexed by f and then by heuristic (created on demand)
+	private Bucket[][] buckets = new Bucket[64][];
+	// the lowest f and, for that f, the lowest heuristic that may hold an entry
+	private int minF = Integer.MAX_VALUE;
+	private int minH;
+	// the best cost of each queued state, entries with a different cost are stale
+	private final StateTable bestCosts;
+
+	// A constructor that creates a queue with room for the given number of states before it grows
+	public BucketQueue(int initialCapacity) {
+		bestCosts = new StateTable(initialCapacity);
+	}
+
+	@Override
+	public boolean push(long state, int cost, int heuristic, int move) {
+		int previous = bestCosts.get(state, -1);
+		if (previous >= 0 && cost >= previous)
+			return false; // keep the cheaper path only
+		bestCosts.put(state, cost);
+		int f = cost + heuristic;
+		bucket(f, heuristic).push(state, move);
+		// move the pointers back if the new entry comes before the current top
+		if (f < minF) {
+			minF = f;
+			minH = heuristic;
+		} else if (f == minF && heuristic < minH) {
+			minH = heuristic;
+		}
+		return true;
+	}
+
+	@Override
+	public int costOf(long state) {
+		return bestCosts.get(state, -1);
+	}
+
+	@Override
+	public long peekState() {
+		Bucket top = top();
+		return top.states[top.size - 1];
+	}
+
+	@Override
+	public int peekCost() {
+		top();
+		return minF - minH;
+	}
+
+	@Override
+	public int peekHeuristic() {
+		top();
+		return minH;
+	}
+
+	@Override
+	public int peekMove() {
+		Bucket top = top();
+		return top.moves[top.size - 1];
+	}
+
+	@Override
+	public long pop() {
+		Bucket top = top();
+		long state = top.states[--top.size];
+		bestCosts.remove(state);
+		return state;
+	}
+
+	@Override
+	public void clear() {
+		for (Bucket[] row : buckets)
+			if (row != null)
+				for (Bucket bucket : row)
+					if (bucket != null)
+						bucket.size = 0;
+		bestCosts.clear();
+		minF = Integer.MAX_VALUE;
+		minH = 0;
+	}
+
+	@Override
+	public int size() {
+		return bestCosts.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return bestCosts.size() == 0;
+	}
+
+	// An inner method that returns the bucket of the next live entry, dropping the stale entries on the way
+	private Bucket top() {
+		while (true) {
+			Bucket[] row = buckets[minF];
+			// advance to the lowest heuristic of the current f that still has entries
+			while (minH < row.length && (row[minH] == null || row[minH].size == 0))
+				minH++;
+			if (minH == row.length) {
+				// nothing left for this f, go to the next one (the queue is not empty, so one exists)
+				minF++;
+				minH = 0;
+				while (buckets[minF] == null)
+					minF++;
+				continue;
+			}
+			Bucket bucket = row[minH];
+			long state = bucket.states[bucket.size - 1];
+			if (bestCosts.get(state, -1) == minF - minH)
+				return bucket;
+			bucket.size--; // a cheaper entry of this state was pushed later, so this one is stale
+		}
+	}
+
+	// An inner method that returns the bucket for the given f and heuristic, creating it when needed
+	private Bucket bucket(int f, int heuristic) {
+		if (f >= buckets.length)
+			buckets = Arrays.copyOf(buckets, Math.max(f + 1, buckets.length << 1));
+		Bucket[] row = buckets[f];
+		if (row == null)
+			row = buckets[f] = new Bucket[Math.max(heuristic + 1, 16)];
+		else if (heuristic >= row.length)
+			row = buckets[f] = Arrays.copyOf(row, Math.max(heuristic + 1, row.length << 1));
+		if (row[heuristic] == null)
+			row[heuristic] = new Bucket();
+		return row[heuristic];
+	}
+
+	// A stack of states that share the same f and heuristic (the cost is f - heuristic, so it is not stored)
+	private static class Bucket {
+		private long[] states = new long[16];
+		private byte[] moves = new byte[16];
+		private int size;
+
+		private void push(long state, int move) {
+			if (size == states.length) {
+				states = Arrays.copyOf(states, size << 1);
+				moves = Arrays.copyOf(moves, size << 1);
+			}
+			states[size] = state;
+			moves[size++] = (byte) move;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+import java.io.IOException; // thrown when the table file cannot be read or written
+import java.nio.ByteBuffer; // used for storing the table both in memory and in a mapped file
+import java.nio.MappedByteBuffer; // used for loading the table file without copying it
+import java.nio.channels.FileChannel; // used for reading and writing the table file
+import java.nio.file.Files; // used for checking if the table file exists
+import java.nio.file.Path; // used for the location of the table file
+import java.nio.file.StandardOpenOption; // used for opening the table file
+import java.util.Arrays; // used for trimming the solution moves
+
+// A class that stores the distance to the goal of every solvable 8-puzzle state, so that any board can be
+// solved without search. The table is created once by a breadth-first search that starts from the goal
+// and it can be saved to a file and memory mapped when the game starts again.
+//
+// Only the 9!/2 = 181,440 states that can reach the goal are stored: a state is indexed by the rank of the
+// positions of its tiles divided by 2 (two permutations with ranks 2k and 2k+1 only differ by the swapped
+// positions of tiles 7 and 8, so exactly one of them can reach the goal). Each entry takes 4 bits, which
+// makes the table about 90 KB. The hardest boards need 31 moves, so an entry holds the distance modulo 16:
+// every move changes the distance by exactly one, so the neighbor with (distance - 1) mod 16 is always a
+// step towards the goal and following such neighbors gives an optimal solution in O(depth) time.
+public class DistanceTable {
+	// The number of solvable states and the number of bytes taken by their entries
+	public static final int STATES = 181440;
+	private static final int TABLE_BYTES = STATES / 2;
+	// The file header: a magic number, the largest distance in the table and the packed goal state
+	private static final int MAGIC = 0x38505444; // "8PTD"
+	private static final int HEADER_BYTES = 16;
+	// The packed layout of the 3 x 3 board
+	private static final PackedState LAYOUT = PackedState.of(3);
+
+	private final ByteBuffer table; // the 4 bit entries, two per byte
+	private final long goal; // the packed goal state that the distances lead to
+	private final int diameter; // the largest distance in the table
+
+	// A constructor that wraps an existing table
+	private DistanceTable(ByteBuffer table, long goal, int diameter) {
+		this.table = table;
+		this.goal = goal;
+		this.diameter = diameter;
+	}
+
+	// A method that creates the table with a breadth-first search that starts from the goal
+	public static DistanceTable build(Board goalBoard) {
+		long goal = pack(goalBoard);
+		ByteBuffer table = ByteBuffer.allocate(TABLE_BYTES);
+		long[] visited = new long[(STATES + 63) / 64]; // a bit for each index that has been reached
+		long[] queue = new long[STATES]; // every state enters the queue once, in order of distance
+		int head = 0, tail = 0;
+		int distance = 0; // the distance of the states in the current layer of the search
+		int layerEnd = 1; // the queue index where the next layer starts
+
+		int goalIndex = index(goal);
+		visited[goalIndex >>> 6] |= 1L << goalIndex;
+		queue[tail++] = goal;
+		// A loop that takes the states in the order they were reached, so their distances never decrease
+		while (head < tail) {
+			if (head == layerEnd) {
+				// every state of the current layer has been expanded
+				distance++;
+				layerEnd = tail;
+			}
+			long state = queue[head++];
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				long neighbor = LAYOUT.move(state, move);
+				if (neighbor == PackedState.NONE)
+					continue;
+				int index = index(neighbor);
+				if ((visited[index >>> 6] & (1L << index)) == 0) {
+					visited[index >>> 6] |= 1L << index;
+					setEntry(table, index, (distance + 1) & 15);
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return new DistanceTable(table, goal, distance);
+	}
+
+	// A method that loads a table saved by the save method by mapping the file into memory
+	public static DistanceTable load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != HEADER_BYTES + TABLE_BYTES)
+				throw new IOException("Not a distance table: " + file);
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (mapped.getInt(0) != MAGIC)
+				throw new IOException("Not a distance table: " + file);
+			int diameter = mapped.getInt(4);
+			long goal = mapped.getLong(8);
+			// the mapping stays valid after the channel is closed
+			return new DistanceTable(mapped.position(HEADER_BYTES).slice(), goal, diameter);
+		}
+	}
+
+	// A method that loads the table from a file if it was saved for the same goal, otherwise it creates the
+	// table and tries to save it so that the next start can skip the search
+	public static DistanceTable loadOrBuild(Path file, Board goal) {
+		if (Files.exists(file)) {
+			try {
+				DistanceTable loaded = load(file);
+				if (loaded.goal == goal.toPackedState())
+					return loaded;
+			} catch (IOException e) {
+				// an unreadable file is replaced below
+			}
+		}
+		DistanceTable built = build(goal);
+		try {
+			built.save(file);
+		} catch (IOException e) {
+			System.out.println("The distance table could not be saved: " + e.getMessage());
+		}
+		return built;
+	}
+
+	// A method that writes the table to a file
+	public void save(Path file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(diameter).putLong(goal).flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer entries = table.duplicate().clear();
+			while (header.hasRemaining())
+				channel.write(header);
+			while (entries.hasRemaining())
+				channel.write(entries);
+		}
+	}
+
+	// A method that returns the number of moves needed to reach the goal, or -1 if the board is not solvable
+	public int distance(Board board) {
+		int[] moves = solutionMoves(pack(board));
+		return moves == null ? -1 : moves.length;
+	}
+
+	// A method that returns an optimal solution, or null if the board is not solvable
+	public Solution solve(Board board) {
+		long state = pack(board);
+		int[] moves = solutionMoves(state);
+		return moves == null ? null : Solution.of(LAYOUT.decode(state), moves);
+	}
+
+	// A getter for the largest distance in the table
+	public int getDiameter() {
+		return diameter;
+	}
+
+	// An inner method that follows the neighbors that are one move closer to the goal and returns the moves,
+	// or null if the state cannot reach the goal
+	private int[] solutionMoves(long state) {
+		int[] moves = new int[diameter];
+		int count = 0;
+		while (state != goal) {
+			// an unsolvable state is mapped to the index of a solvable one, so it never reaches the goal
+			if (count == diameter)
+				return null;
+			int closer = (entry(table, index(state)) - 1) & 15;
+			int next = -1;
+			for (int move = PackedState.UP; move <= PackedState.RIGHT && next < 0; move++) {
+				long neighbor = LAYOUT.move(state, move);
+				if (neighbor != PackedState.NONE && entry(table, index(neighbor)) == closer)
+					next = move;
+			}
+			if (next < 0)
+				return null;
+			moves[count++] = next;
+			state = LAYOUT.move(state, next);
+		}
+		return Arrays.copyOf(moves, count);
+	}
+
+	// An inner method that packs a board, the table only covers the 3 x 3 board
+	private static long pack(Board board) {
+		if (board.getSize() != 3)
+			throw new IllegalArgumentException("The distance table only supports the 3 x 3 board");
+		return board.toPackedState();
+	}
+
+	// An inner method that returns the table index of a state: the rank of the positions of the tiles 0-8
+	// (see the Permutations class), divided by 2
+	private static int index(long state) {
+		int[] positions = new int[9];
+		for (int cell = 0; cell < 9; cell++)
+			positions[PackedState.tileAt(state, cell)] = cell;
+		return (int) (Permutations.rank(positions) >>> 1);
+	}
+
+	// Inner methods that read and write the 4 bit entry at an index
+	private static int entry(ByteBuffer table, int index) {
+		return (table.get(index >>> 1) >>> ((index & 1) << 2)) & 15;
+	}
+
+	private static void setEntry(ByteBuffer table, int index, int value) {
+		int shift = (index & 1) << 2;
+		int old = table.get(index >>> 1);
+		table.put(index >>> 1, (byte) ((old & ~(15 << shift)) | (value << shift)));
+	}
+}
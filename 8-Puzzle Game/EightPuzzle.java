@@ -2,38 +2,47 @@ import lib.StdDraw; // used for animating the 8 puzzle with user interactions
 
 import java.awt.Color; // for coloring the board
 import java.awt.event.KeyEvent; // for the constants of the keys on the keyboard
-import java.util.List; // for storing
+import java.nio.file.Paths; // for the location of the distance table file
 
-//A program that implements the 8 puzzle.
+//A program that implements the 8 puzzle (run it with an argument such as 4 to play on a larger n x n board).
 public class EightPuzzle {
 	public static void main(String[] args) {
+		// the number of rows and columns of the board
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 3;
 		// StdDraw setup
 	    // -----------------------------------------------------------------------
 	    // set the size of the canvas (the drawing area) in pixels
 	    StdDraw.setCanvasSize(500, 500);
 	    // set the range of both x and y values for the drawing canvas
-	    StdDraw.setScale(0.5, 3.5);
+	    StdDraw.setScale(0.5, size + 0.5);
 	    // enable double buffering to animate moving the tiles on the board
 	    StdDraw.enableDoubleBuffering();
 	    
 	    // create a random board for the 8 puzzle (You can also manually enter a board)
-	    Board board = new Board();
+	    Board board = new Board(size);
 
 	    // create a board to represent goal state
-	 	Board goal = new Board(new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 0 });
+	 	Board goal = new Board(Board.getGoalState(size));
 
 	 	// create the solver
 	 	Alg solver = new Alg();
+	 	// keep the solutions, so solving the same board again (or with the other heuristic, or after some of the
+	 	// moves of its solution) is instant
+	 	SolutionCache cache = new SolutionCache(1 << 14);
+	 	// load the distances of all solvable boards from the table file (the table is created and saved on the first start),
+	 	// the table only exists for the 8 puzzle
+	 	DistanceTable distanceTable = size == 3 ? DistanceTable.loadOrBuild(Paths.get("distances.bin"), goal) : null;
 
 	 	// put the board into "not solved" state to represent its color
 		int state = Board.STATE_NOT_SOLVED;
 		// Print the instructions to console
 		System.out.println();
-		System.out.println("Welcome To The 8 Puzzle Game");
+		System.out.println("Welcome To The " + (size * size - 1) + " Puzzle Game");
 		System.out.println();
 		System.out.println("You can play the game using the arrow keys.");
 		System.out.println("Press H to solve the game automatically using misplaced tiles.");
 		System.out.println("Press M to solve the game automatically using manhattan distance.");
+		System.out.println("Press P to solve the game instantly using the precomputed distance table.");
 		System.out.println("Press R to get a new random board.");
 		System.out.println("Press G to get a new solvable board.");
 		System.out.println("Press F to get a new unsolvable board.");
@@ -81,7 +90,7 @@ public class EightPuzzle {
 				System.out.println("New Board Created!");
 				System.out.println();
 				// create a new random board
-				board = new Board();
+				board = new Board(size);
 			}
 			// if the user has pressed the G key on the keyboard
 			if (StdDraw.isKeyPressed(KeyEvent.VK_G)) {
@@ -90,10 +99,10 @@ public class EightPuzzle {
 				System.out.println("New Board Created (Guaranteed Solvable)!");
 				System.out.println();
 				// create a new random board
-				board = new Board();
+				board = new Board(size);
 				// create a board until the board is solvable
 				do  {
-					board = new Board();
+					board = new Board(size);
 				} while(!Alg.isSolvable(board.getInitialState()));
 			}
 			// if the user has pressed the F key on the keyboard
@@ -103,10 +112,10 @@ public class EightPuzzle {
 				System.out.println("New Board Created (Guaranteed Unsolvable)!");
 				System.out.println();
 				// create a new random board
-				board = new Board();
+				board = new Board(size);
 				// create a board until the board is unsolvable
 				do  {
-					board = new Board();
+					board = new Board(size);
 				} while(Alg.isSolvable(board.getInitialState()));
 			}
 			// if the user has pressed the H key on the keyboard
@@ -121,14 +130,14 @@ public class EightPuzzle {
 					System.out.println("Solvable!");
 					System.out.println();
 					StdDraw.setPenColor(Color.WHITE);
-					StdDraw.text(2, 2, "Solving...");
+					StdDraw.text((size + 1) / 2.0, (size + 1) / 2.0, "Solving...");
 					StdDraw.show();		
-					// Assign the each solution state to the solutionPath list
-					List<Board> solutionPath = solver.solve(board, goal, 0);
-					// A loop for drawing each state within the solution path
-					for (int i = 0; i < solutionPath.size(); i++) {
+					// Find the solution, its boards are replayed from its moves one at a time while drawing
+					Solution solution = solve(solver, cache, board, goal, 0);
+					// A loop for drawing each state within the solution
+					for (Board step : solution) {
 						StdDraw.clear();
-						solutionPath.get(i).draw(state); // Draw the current step of the solution
+						step.draw(state); // Draw the current step of the solution
 						StdDraw.show();
 						StdDraw.pause(500); // Pause to visualize the step, adjust the time as needed
 					}
@@ -155,14 +164,47 @@ public class EightPuzzle {
 					System.out.println("Solvable!");
 					System.out.println();
 					StdDraw.setPenColor(Color.WHITE);
-					StdDraw.text(2, 2, "Solving...");
+					StdDraw.text((size + 1) / 2.0, (size + 1) / 2.0, "Solving...");
 					StdDraw.show();		
-					// Assign the each solution state to the solutionPath list
-					List<Board> solutionPath = solver.solve(board, goal, 1);
-					// A loop for drawing each state within the solution path
-					for (int i = 0; i < solutionPath.size(); i++) {
+					// Find the solution, its boards are replayed from its moves one at a time while drawing
+					Solution solution = solve(solver, cache, board, goal, 1);
+					// A loop for drawing each state within the solution
+					for (Board step : solution) {
 						StdDraw.clear();
-						solutionPath.get(i).draw(state); // Draw the current step of the solution
+						step.draw(state); // Draw the current step of the solution
+						StdDraw.show();
+						StdDraw.pause(500); // Pause to visualize the step, adjust the time as needed
+					}
+					// Change the state to "solved" for coloring the board green and show the goal state since we reached it
+					state = Board.STATE_SOLVED;
+					board = new Board(goal.getInitialState());
+				}
+				// if the board is unsolvable, change the state to "unsolvable" for coloring the board red
+				else {
+					state = Board.STATE_UNSOLVABLE;
+					System.out.println("Not solvable.");
+					System.out.println();
+				}
+			}
+			// if the user has pressed the P key on the keyboard
+			if (StdDraw.isKeyPressed(KeyEvent.VK_P)) {
+				// not solved state for coloring
+				state = Board.STATE_NOT_SOLVED;
+				//State that the table has been used
+				System.out.println("Table Lookup Activated! Using Precomputed Distances");
+				// Follow the table towards the goal, the path is null if the board is unsolvable
+				Solution solution = distanceTable == null ? null : distanceTable.solve(board);
+				if (distanceTable == null) {
+					System.out.println("The distance table is only available for the 8 puzzle.");
+					System.out.println();
+				}
+				else if (solution != null) {
+					System.out.println("Solvable! Optimal solution has " + solution.getLength() + " moves.");
+					System.out.println();
+					// A loop for drawing each state within the solution
+					for (Board step : solution) {
+						StdDraw.clear();
+						step.draw(state); // Draw the current step of the solution
 						StdDraw.show();
 						StdDraw.pause(500); // Pause to visualize the step, adjust the time as needed
 					}
@@ -179,4 +221,10 @@ public class EightPuzzle {
 			}
 		}
 	}
+	// A method that solves the board with A* on the 8 puzzle, the larger boards use IDA* on all cores which only
+	// needs memory for the current path of each thread. The solutions found before are taken from the cache.
+	private static Solution solve(Alg solver, SolutionCache cache, Board board, Board goal, int n) {
+		int algorithm = board.getSize() == 3 ? Alg.SOLVER_A_STAR : Alg.SOLVER_PARALLEL_IDA_STAR;
+		return cache.solve(solver, algorithm, board, goal, n);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,451 @@
+import java.io.Closeable; // implemented by the readers and writers of state files
+import java.io.IOException; // thrown when a state file cannot be read or written
+import java.io.InterruptedIOException; // thrown when the thread is interrupted while it waits for the disk
+import java.nio.ByteBuffer; // used for the blocks that are read and written
+import java.nio.channels.FileChannel; // used for reading and writing the state files
+import java.nio.file.Files; // used for creating and deleting the state files
+import java.nio.file.Path; // used for the location of the state files
+import java.nio.file.StandardCopyOption; // used for replacing a layer that was only partly written
+import java.nio.file.StandardOpenOption; // used for opening the state files
+import java.util.ArrayList; // used for the runs and the histogram
+import java.util.Arrays; // used for sorting the buffered states
+import java.util.List; // used for the runs and the histogram
+import java.util.PriorityQueue; // used for merging the runs
+import java.util.concurrent.ExecutionException; // thrown when a block could not be read or written
+import java.util.concurrent.ExecutorService; // used for the threads that read and write the blocks
+import java.util.concurrent.Executors; // used for creating those threads
+import java.util.concurrent.Future; // used for waiting for a block
+
+// A breadth-first search from the goal that keeps its layers on disk, so it can count the states at every distance
+// of puzzles that do not fit in memory (the 15 puzzle has about 10^13 states). Every state is a packed long (see
+// the PackedState class), and each layer is a file of sorted states in which only the difference to the previous
+// state is stored, in 7-bit groups, so most states take 2 to 4 bytes.
+//
+// The next layer is made in two steps. The states of the current layer are read in order and their neighbors are
+// collected in a buffer of fixed size, which is sorted and written as a run (a file with the same format) each
+// time it is full. Then the runs are merged, which removes the duplicates (delayed duplicate detection), and the
+// states that are in the current or the previous layer are left out: a move can always be undone, so a neighbor
+// of a state at distance d is at distance d - 1, d or d + 1. All files are read and written sequentially in large
+// blocks, and each file has a second block that is read or written by another thread meanwhile (double
+// buffering), so the search waits for the disk as little as possible.
+//
+// The count of every finished layer is appended to a histogram file in the directory, so a search that is stopped
+// continues from the last finished layer when it is started again.
+public class ExternalBFS {
+	// The number of bytes read or written at once, each open file uses two blocks
+	public static final int BLOCK_SIZE = 1 << 18;
+	// The largest number of runs merged at once, more runs are first merged into larger ones
+	private static final int MERGE_WIDTH = 64;
+	// The number of threads that read and write the blocks
+	private static final int IO_THREADS = 2;
+	// The longest difference between two states takes 10 groups of 7 bits
+	private static final int MAX_ENCODED_BYTES = 10;
+
+	private final PackedState layout; // the layout of the packed states
+	private final Path directory; // the directory of the layer, run and histogram files
+	private final long[] buffer; // the neighbors collected before they are written as a run
+	private final List<Long> histogram = new ArrayList<>(); // the number of states at each distance
+	private ExecutorService io; // the threads that read and write the blocks of the current search
+
+	// A listener that is told about every layer when it is finished, with the number of states in it and the
+	// time it took in nanoseconds
+	public interface LayerListener {
+		void finished(int depth, long states, long nanos);
+	}
+
+	// A constructor for a search on boards of the given width (up to 4 x 4), which keeps its files in the directory
+	// and collects up to bufferStates neighbors in memory (8 bytes each) before writing them as a run
+	public ExternalBFS(int width, Path directory, int bufferStates) {
+		if (bufferStates < 4)
+			throw new IllegalArgumentException("The buffer must hold at least 4 states");
+		this.layout = PackedState.of(width);
+		this.directory = directory;
+		this.buffer = new long[bufferStates];
+	}
+
+	// A method that runs the search until every state is found or the layer maxDepth is finished, and returns the
+	// number of states at each distance from the goal (the diameter is the length minus 1 when every state is
+	// found). A finished search is not repeated, its histogram is read back from the directory.
+	public long[] run(int maxDepth) throws IOException {
+		return run(maxDepth, (depth, states, nanos) -> {
+		});
+	}
+
+	// A method that runs the search like run(maxDepth) and tells the listener about every layer it finishes
+	public long[] run(int maxDepth, LayerListener listener) throws IOException {
+		Files.createDirectories(directory);
+		io = Executors.newFixedThreadPool(IO_THREADS);
+		try {
+			int depth = resume();
+			if (depth < 0) {
+				// Start with the goal as the only state at distance 0
+				try (StateWriter writer = new StateWriter(layerPath(0))) {
+					writer.write(layout.encode(Board.getGoalState(layout.getWidth())));
+				}
+				recordLayer(1);
+				depth = 0;
+			}
+			while (histogram.get(depth) > 0 && depth < maxDepth) {
+				long start = System.nanoTime();
+				long count = expandLayer(depth);
+				recordLayer(count);
+				depth++;
+				listener.finished(depth, count, System.nanoTime() - start);
+				// The layer before the current one is not needed by the next layer
+				if (depth >= 2)
+					Files.deleteIfExists(layerPath(depth - 2));
+			}
+			return getHistogram();
+		} finally {
+			io.shutdown();
+		}
+	}
+
+	// A getter for the number of states at each distance found so far (a trailing 0 marks a finished search)
+	public long[] getHistogram() {
+		long[] counts = new long[histogram.size()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = histogram.get(i);
+		return counts;
+	}
+
+	// An inner method that makes the layer depth + 1 from the layers depth and depth - 1 and returns its size
+	private long expandLayer(int depth) throws IOException {
+		// Collect the neighbors of every state in sorted runs
+		List<Path> runs = new ArrayList<>();
+		int size = 0;
+		try (StateReader layer = new StateReader(layerPath(depth))) {
+			while (layer.hasNext()) {
+				long state = layer.next();
+				if (size > buffer.length - 4) {
+					runs.add(writeRun(depth + 1, runs.size(), size));
+					size = 0;
+				}
+				for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+					long neighbor = layout.move(state, move);
+					if (neighbor != PackedState.NONE)
+						buffer[size++] = neighbor;
+				}
+			}
+		}
+		if (size > 0)
+			runs.add(writeRun(depth + 1, runs.size(), size));
+
+		// Merge the runs into fewer ones until a single merge can read all of them
+		int pass = 0;
+		while (runs.size() > MERGE_WIDTH) {
+			List<Path> merged = new ArrayList<>();
+			for (int i = 0; i < runs.size(); i += MERGE_WIDTH) {
+				List<Path> group = runs.subList(i, Math.min(i + MERGE_WIDTH, runs.size()));
+				Path output = directory.resolve("run-" + (depth + 1) + "-p" + pass + "-" + merged.size() + ".bin");
+				merge(group, null, null, output);
+				merged.add(output);
+			}
+			runs = merged;
+			pass++;
+		}
+
+		// Merge the remaining runs into the next layer without the states of the current and previous layers
+		Path next = layerPath(depth + 1);
+		Path partial = directory.resolve(next.getFileName() + ".tmp");
+		long count = merge(runs, layerPath(depth), depth > 0 ? layerPath(depth - 1) : null, partial);
+		Files.move(partial, next, StandardCopyOption.REPLACE_EXISTING);
+		return count;
+	}
+
+	// An inner method that sorts the first size states of the buffer and writes them without duplicates as a run
+	private Path writeRun(int depth, int index, int size) throws IOException {
+		Arrays.sort(buffer, 0, size);
+		Path run = directory.resolve("run-" + depth + "-" + index + ".bin");
+		try (StateWriter writer = new StateWriter(run)) {
+			for (int i = 0; i < size; i++) {
+				if (i == 0 || buffer[i] != buffer[i - 1])
+					writer.write(buffer[i]);
+			}
+		}
+		return run;
+	}
+
+	// An inner method that merges sorted runs into one file without duplicates and without the states of the two
+	// excluded layers (either can be null), deletes the runs and returns the number of states written
+	private long merge(List<Path> runs, Path excluded, Path alsoExcluded, Path output) throws IOException {
+		List<StateReader> readers = new ArrayList<>();
+		try (StateWriter writer = new StateWriter(output);
+				StateReader first = excluded == null ? null : new StateReader(excluded);
+				StateReader second = alsoExcluded == null ? null : new StateReader(alsoExcluded)) {
+			// A queue of the runs ordered by their next state
+			PriorityQueue<StateReader> queue = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+			for (Path run : runs) {
+				StateReader reader = new StateReader(run);
+				readers.add(reader);
+				if (reader.hasNext())
+					queue.add(reader);
+			}
+			long previous = 0;
+			boolean any = false;
+			while (!queue.isEmpty()) {
+				StateReader reader = queue.poll();
+				long state = reader.next();
+				if (reader.hasNext())
+					queue.add(reader);
+				if (any && state == previous)
+					continue; // a duplicate from another run
+				previous = state;
+				any = true;
+				if (!contains(first, state) && !contains(second, state))
+					writer.write(state);
+			}
+			return writer.getCount();
+		} finally {
+			for (StateReader reader : readers)
+				reader.close();
+			for (Path run : runs)
+				Files.deleteIfExists(run);
+		}
+	}
+
+	// An inner method that checks if a sorted file contains a state, the states must be checked in increasing order
+	private static boolean contains(StateReader reader, long state) throws IOException {
+		if (reader == null)
+			return false;
+		while (reader.hasNext() && reader.peek() < state)
+			reader.next();
+		return reader.hasNext() && reader.peek() == state;
+	}
+
+	// An inner method that reads the histogram of an earlier search, returns the last finished depth or -1 if the
+	// search has to start from the goal
+	private int resume() throws IOException {
+		histogram.clear();
+		Path file = histogramPath();
+		if (Files.exists(file)) {
+			for (String line : Files.readAllLines(file)) {
+				if (!line.isBlank())
+					histogram.add(Long.parseLong(line.trim().split(" ")[1]));
+			}
+		}
+		int depth = histogram.size() - 1;
+		// A finished search needs no files, otherwise the last layer and the one before it are read again
+		boolean finished = depth >= 0 && histogram.get(depth) == 0;
+		if (depth >= 0 && (finished || Files.exists(layerPath(depth)) && (depth == 0 || Files.exists(layerPath(depth - 1)))))
+			return depth;
+		histogram.clear();
+		Files.deleteIfExists(file);
+		return -1;
+	}
+
+	// An inner method that adds the count of a finished layer to the histogram and its file
+	private void recordLayer(long count) throws IOException {
+		String line = histogram.size() + " " + count + System.lineSeparator();
+		histogram.add(count);
+		Files.writeString(histogramPath(), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	// Inner methods that return the locations of the files
+	private Path layerPath(int depth) {
+		return directory.resolve("layer-" + depth + ".bin");
+	}
+
+	private Path histogramPath() {
+		return directory.resolve("histogram.txt");
+	}
+
+	// An inner method that waits for a block that another thread reads or writes
+	private static <T> T await(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the disk");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	// A writer of sorted states: an 8 byte header with the number of states, then the difference of every state to
+	// the one before it (to Long.MIN_VALUE for the first one) in groups of 7 bits, the lowest group first and the
+	// high bit set on every group but the last. One block is filled while the other one is written.
+	private final class StateWriter implements Closeable {
+		private final FileChannel channel;
+		private ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		private ByteBuffer spare = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		private Future<?> pending; // the write of the spare block
+		private long previous = Long.MIN_VALUE;
+		private long count;
+
+		private StateWriter(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			block.putLong(0); // the count is written when the file is closed
+		}
+
+		// A method that adds a state, which must be larger than the previous one
+		private void write(long state) throws IOException {
+			if (block.remaining() < MAX_ENCODED_BYTES)
+				flush();
+			long difference = state - previous; // unsigned, the states are in increasing order
+			while ((difference & ~0x7FL) != 0) {
+				block.put((byte) (difference & 0x7F | 0x80));
+				difference >>>= 7;
+			}
+			block.put((byte) difference);
+			previous = state;
+			count++;
+		}
+
+		// A getter for the number of states written
+		private long getCount() {
+			return count;
+		}
+
+		// An inner method that hands the filled block to an I/O thread and continues with the spare one
+		private void flush() throws IOException {
+			if (pending != null)
+				await(pending);
+			ByteBuffer full = block.flip();
+			pending = io.submit(() -> {
+				while (full.hasRemaining())
+					channel.write(full);
+				return null;
+			});
+			block = spare.clear();
+			spare = full;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+				await(pending);
+				ByteBuffer header = ByteBuffer.allocate(8).putLong(0, count);
+				while (header.hasRemaining())
+					channel.write(header, header.position());
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	// A reader of the files written by StateWriter, one block is decoded while the next one is read
+	private final class StateReader implements Closeable {
+		private final FileChannel channel;
+		private ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		private ByteBuffer spare = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		private Future<Integer> pending; // the read of the spare block
+		private long remaining; // the number of states that are not read yet
+		private long current = Long.MIN_VALUE; // the last state read
+		private long next; // the state returned by the next call to next
+		private boolean hasNext;
+
+		private StateReader(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			ByteBuffer header = ByteBuffer.allocate(8);
+			while (header.hasRemaining())
+				if (channel.read(header) < 0)
+					throw new IOException("Not a state file: " + file);
+			remaining = header.getLong(0);
+			block.flip(); // empty, the first block is read by the first call to nextByte
+			prefetch();
+			advance();
+		}
+
+		// A method that checks if there is another state
+		private boolean hasNext() {
+			return hasNext;
+		}
+
+		// A method that returns the next state without reading it
+		private long peek() {
+			return next;
+		}
+
+		// A method that returns the next state
+		private long next() throws IOException {
+			long state = next;
+			advance();
+			return state;
+		}
+
+		// An inner method that decodes the state after the current one
+		private void advance() throws IOException {
+			hasNext = remaining > 0;
+			if (!hasNext)
+				return;
+			long difference = 0;
+			int shift = 0;
+			byte group;
+			do {
+				group = nextByte();
+				difference |= (long) (group & 0x7F) << shift;
+				shift += 7;
+			} while (group < 0);
+			current += difference;
+			next = current;
+			remaining--;
+		}
+
+		// An inner method that returns the next byte of the file, switching to the block that was read meanwhile
+		// when the current one is used up
+		private byte nextByte() throws IOException {
+			if (!block.hasRemaining()) {
+				int read = await(pending);
+				if (read <= 0)
+					throw new IOException("The state file ends too early");
+				ByteBuffer used = block;
+				block = spare.flip();
+				spare = used;
+				prefetch();
+			}
+			return block.get();
+		}
+
+		// An inner method that starts reading the next block into the spare one
+		private void prefetch() {
+			ByteBuffer target = spare.clear();
+			pending = io.submit(() -> {
+				int total = 0;
+				while (target.hasRemaining()) {
+					int read = channel.read(target);
+					if (read < 0)
+						break;
+					total += read;
+				}
+				return total;
+			});
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				await(pending); // the channel must not be closed while a block is read
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	// Runs the search on the 8 puzzle (width 3) or the 15 puzzle (width 4) and prints the number of states at each
+	// distance: java ExternalBFS <width> <directory> [buffer states] [max depth]
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java ExternalBFS <width> <directory> [buffer states] [max depth]");
+			return;
+		}
+		int width = Integer.parseInt(args[0]);
+		int bufferStates = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 24;
+		int maxDepth = args.length > 3 ? Integer.parseInt(args[3]) : Integer.MAX_VALUE;
+		ExternalBFS search = new ExternalBFS(width, Path.of(args[1]), bufferStates);
+		long[] histogram = search.run(maxDepth, (depth, states, nanos) -> System.out
+				.printf("depth %d: %d states (%.1f s)%n", depth, states, nanos / 1e9));
+		long total = 0;
+		for (int depth = 0; depth < histogram.length; depth++) {
+			System.out.println(depth + " " + histogram[depth]);
+			total += histogram[depth];
+		}
+		System.out.println(total + " states");
+		if (histogram[histogram.length - 1] == 0)
+			System.out.println("diameter " + (histogram.length - 2));
+	}
+}
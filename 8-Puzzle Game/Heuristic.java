@@ -0,0 +1,20 @@
+// A heuristic of the A* search: an estimate of the number of moves from a packed state (see the PackedState
+// class) to the goal it was created for. The estimate must never be larger than the real number of moves, so
+// that the solutions stay optimal. A heuristic is created for one goal by its Factory, and it may keep scratch
+// arrays, so each search creates its own. The heuristics that can be selected by name are listed in the
+// Heuristics class.
+public interface Heuristic {
+	// A method that returns the estimate of a state
+	int estimate(long state);
+
+	// A method that returns the estimate of next, which is one move away from state whose estimate is known.
+	// The heuristics that can update the estimate faster than calculating it again override it.
+	default int update(long state, long next, int estimate) {
+		return estimate(next);
+	}
+
+	// A factory that creates the heuristic of a goal for the packed states of a layout
+	interface Factory {
+		Heuristic create(PackedState layout, long goalState);
+	}
+}
@@ -0,0 +1,40 @@
+import java.util.List; // used for the names of the heuristics
+
+// A benchmark that compares the heuristics on the shared benchmark boards (see the BenchmarkSet class):
+// the number of expanded nodes, the nodes saved compared with the manhattan distance and the time per
+// board, for every heuristic of the Heuristics registry. Run it with "java HeuristicBenchmark".
+public class HeuristicBenchmark {
+
+	public static void main(String[] args) {
+		Board goal = new Board(BenchmarkSet.EIGHT_PUZZLE_GOAL);
+		Alg solver = new Alg();
+		report("Hard boards", BenchmarkSet.HARD_EIGHT_PUZZLES, solver, goal);
+		report("Random boards", BenchmarkSet.randomEightPuzzles(1, 200), solver, goal);
+	}
+
+	// An inner method that solves the boards with every heuristic and prints the totals
+	private static void report(String title, int[][] boards, Alg solver, Board goal) {
+		System.out.println(title + " (" + boards.length + "):");
+		List<String> names = Heuristics.names();
+		long manhattanNodes = 0;
+		long[] nodes = new long[names.size()];
+		long[] times = new long[names.size()];
+		for (int n = 0; n < names.size(); n++) {
+			Heuristic.Factory heuristics = Heuristics.get(names.get(n));
+			// solve once untimed so that the JIT compiler and the pattern database are ready
+			solver.solve(new Board(boards[0]), goal, heuristics);
+			long start = System.nanoTime();
+			for (int[] board : boards) {
+				solver.solve(new Board(board), goal, heuristics);
+				nodes[n] += solver.getExpandedNodes();
+			}
+			times[n] = System.nanoTime() - start;
+			if (names.get(n).equals(Heuristics.MANHATTAN))
+				manhattanNodes = nodes[n];
+		}
+		for (int n = 0; n < names.size(); n++) {
+			System.out.printf("  %-20s %10d nodes %+8.1f%% vs manhattan %8.3f ms/board%n", names.get(n), nodes[n],
+					100.0 * (nodes[n] - manhattanNodes) / manhattanNodes, times[n] / 1e6 / boards.length);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+import java.util.ArrayList; // used for the list of names
+import java.util.LinkedHashMap; // used for the heuristics in the order they were registered
+import java.util.List; // used for the list of names
+import java.util.Map; // used for the heuristics by name
+
+// The registry of the heuristics that can be selected by name, for example by Alg.solve, the benchmarks and the
+// batch tools. The built-in heuristics are registered first, and new ones can be added with register, so they
+// can be compared with the others (nodes and time) without changing the Board or Alg classes.
+public final class Heuristics {
+	// The names of the built-in heuristics
+	public static final String MISPLACED = "misplaced";
+	public static final String MANHATTAN = "manhattan";
+	public static final String PATTERN_DATABASE = "pattern-database";
+	public static final String LINEAR_CONFLICT = "linear-conflict";
+	public static final String MAX = "max"; // the maximum of the linear conflicts and the pattern databases
+
+	// The heuristic names of the ids used by the Alg class (0 misplaced tiles, 1 manhattan distance, ...)
+	private static final String[] IDS = { MISPLACED, MANHATTAN, PATTERN_DATABASE, LINEAR_CONFLICT };
+
+	private static final Map<String, Heuristic.Factory> FACTORIES = new LinkedHashMap<>();
+
+	static {
+		register(MISPLACED, (layout, goalState) -> new TableHeuristic(layout, goalState, 0));
+		register(MANHATTAN, (layout, goalState) -> new TableHeuristic(layout, goalState, 1));
+		register(PATTERN_DATABASE, PatternDatabaseHeuristic.factory());
+		register(LINEAR_CONFLICT,
+				(layout, goalState) -> new TableHeuristic(layout, goalState, Alg.HEURISTIC_LINEAR_CONFLICT));
+		register(MAX, MaxHeuristic.of(get(LINEAR_CONFLICT), get(PATTERN_DATABASE)));
+	}
+
+	// The class only has static methods, so it is not meant to be instantiated
+	private Heuristics() {
+	}
+
+	// A method that adds a heuristic under a new name
+	public static synchronized void register(String name, Heuristic.Factory factory) {
+		if (FACTORIES.containsKey(name))
+			throw new IllegalArgumentException("A heuristic is already registered as " + name);
+		FACTORIES.put(name, factory);
+	}
+
+	// A method that returns the factory of the heuristic with the given name
+	public static synchronized Heuristic.Factory get(String name) {
+		Heuristic.Factory factory = FACTORIES.get(name);
+		if (factory == null)
+			throw new IllegalArgumentException("Unknown heuristic " + name + ", the heuristics are " + FACTORIES.keySet());
+		return factory;
+	}
+
+	// A method that returns the factory of the heuristic with the given id of the Alg class
+	public static Heuristic.Factory byId(int n) {
+		if (n < 0 || n >= IDS.length)
+			throw new IllegalArgumentException("Unknown heuristic id " + n);
+		return get(IDS[n]);
+	}
+
+	// A method that returns the names of the heuristics in the order they were registered
+	public static synchronized List<String> names() {
+		return new ArrayList<>(FACTORIES.keySet());
+	}
+}
@@ -0,0 +1,195 @@
+import java.util.Arrays; // used for growing the slot arrays
+
+// A binary min-heap of packed states (see the PackedState class) used as the open set of the solver.
+// The states are ordered by f = cost + heuristic and ties are broken by the smaller heuristic.
+// Every queued state owns a slot in parallel primitive arrays and a StateTable maps each state to its slot,
+// so membership is O(1), and pushing a queued state with a smaller cost is an O(log n) decrease-key
+// instead of a linear scan. Slots of popped states are reused, so memory follows the size of the frontier.
+public class IndexedHeap implements OpenList {
+	// the data of each slot: the state, its cost, its heuristic, the move that reached it
+	// and the position of the slot in the heap array
+	private long[] states;
+	private int[] costs;
+	private int[] heuristics;
+	private int[] moves;
+	private int[] heapPositions;
+	// the heap itself, holding slot numbers (heap[0] is the slot with the lowest f)
+	private int[] heap;
+	// the slots released by popped states (a stack) and the number of them
+	private int[] freeSlots;
+	private int freeCount;
+	private int usedSlots; // the number of slots that have been handed out so far
+	private int size; // the number of queued states
+	private final StateTable index; // maps each queued state to its slot
+
+	// A constructor that creates a heap with room for the given number of states before it grows
+	public IndexedHeap(int initialCapacity) {
+		int capacity = Math.max(16, initialCapacity);
+		states = new long[capacity];
+		costs = new int[capacity];
+		heuristics = new int[capacity];
+		moves = new int[capacity];
+		heapPositions = new int[capacity];
+		heap = new int[capacity];
+		freeSlots = new int[capacity];
+		index = new StateTable(capacity);
+	}
+
+	// A method that queues a state, or lowers its cost if it is already queued with a higher cost.
+	// Returns true if the heap changed.
+	@Override
+	public boolean push(long state, int cost, int heuristic, int move) {
+		int slot = index.get(state, -1);
+		if (slot >= 0) {
+			// the state is already queued, keep the cheaper path only
+			if (cost >= costs[slot])
+				return false;
+			costs[slot] = cost;
+			heuristics[slot] = heuristic;
+			moves[slot] = move;
+			siftUp(heapPositions[slot]); // decrease-key: f can only get smaller, so the slot moves up
+			return true;
+		}
+		slot = allocateSlot();
+		states[slot] = state;
+		costs[slot] = cost;
+		heuristics[slot] = heuristic;
+		moves[slot] = move;
+		index.put(state, slot);
+		heap[size] = slot;
+		heapPositions[slot] = size;
+		siftUp(size++);
+		return true;
+	}
+
+	// A method that checks if a state is queued
+	public boolean contains(long state) {
+		return index.contains(state);
+	}
+
+	// A method that returns the cost of a queued state, or -1 if the state is not queued
+	@Override
+	public int costOf(long state) {
+		int slot = index.get(state, -1);
+		return slot < 0 ? -1 : costs[slot];
+	}
+
+	// Getters for the state with the lowest f and its data (the heap must not be empty)
+	@Override
+	public long peekState() {
+		return states[heap[0]];
+	}
+
+	@Override
+	public int peekCost() {
+		return costs[heap[0]];
+	}
+
+	@Override
+	public int peekHeuristic() {
+		return heuristics[heap[0]];
+	}
+
+	@Override
+	public int peekMove() {
+		return moves[heap[0]];
+	}
+
+	// A method that removes the state with the lowest f and returns it
+	@Override
+	public long pop() {
+		int slot = heap[0];
+		long state = states[slot];
+		index.remove(state);
+		freeSlots[freeCount++] = slot;
+		// move the last slot to the root and restore the heap order
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			heapPositions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return state;
+	}
+
+	// A method that removes all states
+	@Override
+	public void clear() {
+		index.clear();
+		size = 0;
+		usedSlots = 0;
+		freeCount = 0;
+	}
+
+	// A getter for the number of queued states
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// A method that checks if there are no queued states
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// An inner method that checks if slot a should be popped before slot b
+	private boolean less(int a, int b) {
+		int fa = costs[a] + heuristics[a];
+		int fb = costs[b] + heuristics[b];
+		return fa < fb || (fa == fb && heuristics[a] < heuristics[b]);
+	}
+
+	// An inner method that moves the slot at the given heap position up until its parent is not larger
+	private void siftUp(int position) {
+		int slot = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!less(slot, heap[parent]))
+				break;
+			heap[position] = heap[parent];
+			heapPositions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = slot;
+		heapPositions[slot] = position;
+	}
+
+	// An inner method that moves the slot at the given heap position down until its children are not smaller
+	private void siftDown(int position) {
+		int slot = heap[position];
+		int half = size >>> 1; // positions from here on have no children
+		while (position < half) {
+			int child = 2 * position + 1;
+			if (child + 1 < size && less(heap[child + 1], heap[child]))
+				child++;
+			if (!less(heap[child], slot))
+				break;
+			heap[position] = heap[child];
+			heapPositions[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = slot;
+		heapPositions[slot] = position;
+	}
+
+	// An inner method that returns a free slot, growing the arrays when all of them are in use
+	private int allocateSlot() {
+		if (freeCount > 0)
+			return freeSlots[--freeCount];
+		if (usedSlots == states.length)
+			grow(states.length << 1);
+		return usedSlots++;
+	}
+
+	// An inner method that copies the slot data into larger arrays
+	private void grow(int capacity) {
+		states = Arrays.copyOf(states, capacity);
+		costs = Arrays.copyOf(costs, capacity);
+		heuristics = Arrays.copyOf(heuristics, capacity);
+		moves = Arrays.copyOf(moves, capacity);
+		heapPositions = Arrays.copyOf(heapPositions, capacity);
+		heap = Arrays.copyOf(heap, capacity);
+		freeSlots = Arrays.copyOf(freeSlots, capacity);
+	}
+}
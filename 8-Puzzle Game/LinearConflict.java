@@ -0,0 +1,115 @@
+// A class that calculates the extra moves of the linear conflict heuristic: when tiles that belong to the same
+// row (or column) are in that row but in the wrong order, all but the longest correctly ordered group of them
+// must leave the line and come back, which costs 2 moves each on top of their manhattan distance.
+//
+// The A* search works on packed states (see the PackedState class) and the IDA* search works on a flattened
+// board that holds the tile of every cell, so both are supported. A move only changes two lines (the ones the
+// moved tile left and entered), so the delta methods only evaluate those lines again.
+public final class LinearConflict {
+	// a mask that covers the 4 bits of a single offset
+	private static final long OFFSET_MASK = 0xFL;
+
+	// The class only has static methods, so it is not meant to be instantiated
+	private LinearConflict() {
+	}
+
+	// A method that returns the linear conflict moves of a packed state
+	public static int count(PackedState layout, long state, int[] goalPositions) {
+		int conflicts = 0;
+		for (int line = 0; line < layout.getWidth(); line++)
+			conflicts += lineConflicts(layout, state, goalPositions, line, true)
+					+ lineConflicts(layout, state, goalPositions, line, false);
+		return conflicts;
+	}
+
+	// A method that returns how much the linear conflicts change when the state changes to next with one move.
+	// A tile that slides sideways keeps its row and only its old and new columns change, a tile that slides up
+	// or down only changes its old and new rows.
+	public static int delta(PackedState layout, long state, long next, int[] goalPositions) {
+		int width = layout.getWidth();
+		int oldCell = layout.blank(next); // the moved tile was on the cell that becomes empty
+		int newCell = layout.blank(state);
+		boolean vertical = oldCell / width != newCell / width;
+		int oldLine = vertical ? oldCell / width : oldCell % width;
+		int newLine = vertical ? newCell / width : newCell % width;
+		return lineConflicts(layout, next, goalPositions, oldLine, vertical)
+				- lineConflicts(layout, state, goalPositions, oldLine, vertical)
+				+ lineConflicts(layout, next, goalPositions, newLine, vertical)
+				- lineConflicts(layout, state, goalPositions, newLine, vertical);
+	}
+
+	// A method that returns the linear conflict moves of a flattened width x width board
+	public static int count(int[] cells, int width, int[] goalPositions) {
+		int conflicts = 0;
+		for (int line = 0; line < width; line++)
+			conflicts += lineConflicts(cells, width, goalPositions, line, true)
+					+ lineConflicts(cells, width, goalPositions, line, false);
+		return conflicts;
+	}
+
+	// A method that returns how much the linear conflicts of a flattened board change when the tile on the cell
+	// from slides into the empty cell to. The array is changed while the lines are evaluated and restored after.
+	public static int delta(int[] cells, int width, int from, int to, int[] goalPositions) {
+		boolean vertical = from / width != to / width;
+		int fromLine = vertical ? from / width : from % width;
+		int toLine = vertical ? to / width : to % width;
+		int before = lineConflicts(cells, width, goalPositions, fromLine, vertical)
+				+ lineConflicts(cells, width, goalPositions, toLine, vertical);
+		cells[to] = cells[from];
+		cells[from] = 0;
+		int after = lineConflicts(cells, width, goalPositions, fromLine, vertical)
+				+ lineConflicts(cells, width, goalPositions, toLine, vertical);
+		cells[from] = cells[to];
+		cells[to] = 0;
+		return after - before;
+	}
+
+	// An inner method that returns the linear conflict moves of one row (isRow) or column of a packed state
+	private static int lineConflicts(PackedState layout, long state, int[] goalPositions, int line, boolean isRow) {
+		int width = layout.getWidth();
+		// the goal offsets along the line of the tiles that belong to this line, 4 bits each in the order they appear
+		long offsets = 0;
+		int length = 0;
+		for (int i = 0; i < width; i++) {
+			int tile = PackedState.tileAt(state, isRow ? line * width + i : i * width + line);
+			if (tile == 0)
+				continue;
+			int goal = goalPositions[tile];
+			if ((isRow ? goal / width : goal % width) == line)
+				offsets |= (long) (isRow ? goal % width : goal / width) << (4 * length++);
+		}
+		return conflicts(offsets, length);
+	}
+
+	// An inner method that returns the linear conflict moves of one row (isRow) or column of a flattened board
+	private static int lineConflicts(int[] cells, int width, int[] goalPositions, int line, boolean isRow) {
+		long offsets = 0;
+		int length = 0;
+		for (int i = 0; i < width; i++) {
+			int tile = cells[isRow ? line * width + i : i * width + line];
+			if (tile == 0)
+				continue;
+			int goal = goalPositions[tile];
+			if ((isRow ? goal / width : goal % width) == line)
+				offsets |= (long) (isRow ? goal % width : goal / width) << (4 * length++);
+		}
+		return conflicts(offsets, length);
+	}
+
+	// An inner method that returns the conflict moves of a line from the goal offsets of its tiles: the longest
+	// increasing subsequence of the offsets can stay, the other tiles are in conflict
+	private static int conflicts(long offsets, int length) {
+		long lengths = 0; // the longest increasing subsequence that ends at each offset, 4 bits each
+		int longest = 0;
+		for (int i = 0; i < length; i++) {
+			long offset = (offsets >>> (4 * i)) & OFFSET_MASK;
+			long best = 1;
+			for (int j = 0; j < i; j++)
+				if (((offsets >>> (4 * j)) & OFFSET_MASK) < offset)
+					best = Math.max(best, ((lengths >>> (4 * j)) & OFFSET_MASK) + 1);
+			lengths |= best << (4 * i);
+			longest = Math.max(longest, (int) best);
+		}
+		return 2 * (length - longest);
+	}
+}
@@ -0,0 +1,31 @@
+// A heuristic that takes the largest estimate of several heuristics. Each of them is a lower bound, so their
+// maximum is one too, and it is at least as good as the best of them on every state. The estimates of the parts
+// are not kept, so the estimate is calculated again after every move.
+public class MaxHeuristic implements Heuristic {
+	private final Heuristic[] parts;
+
+	// A constructor that combines the given heuristics
+	public MaxHeuristic(Heuristic... parts) {
+		if (parts.length == 0)
+			throw new IllegalArgumentException("At least one heuristic is needed");
+		this.parts = parts;
+	}
+
+	// A method that returns the factory of the maximum of the heuristics made by the given factories
+	public static Heuristic.Factory of(Heuristic.Factory... factories) {
+		return (layout, goalState) -> {
+			Heuristic[] parts = new Heuristic[factories.length];
+			for (int i = 0; i < factories.length; i++)
+				parts[i] = factories[i].create(layout, goalState);
+			return new MaxHeuristic(parts);
+		};
+	}
+
+	@Override
+	public int estimate(long state) {
+		int estimate = 0;
+		for (Heuristic part : parts)
+			estimate = Math.max(estimate, part.estimate(state));
+		return estimate;
+	}
+}
@@ -0,0 +1,277 @@
+import java.util.Arrays; // used for growing the moves of the solution
+import java.util.TreeSet; // used for the queue and the leaves, ordered from the best to the worst node
+
+// A memory-bounded A* search (simplified memory-bounded A*, SMA*) that never keeps more than a fixed number of
+// nodes. It searches the tree of paths like A* and expands the node with the lowest f first (the deepest one on
+// ties). When the budget is used up, the leaf with the highest f (the shallowest one on ties) is dropped, and its
+// f is backed up into its parent, so the parent is expanded again when that value becomes the lowest and the
+// dropped subtree is only generated again, with the f it had learned, when it is the most promising one. The f
+// of a node is always the lowest f of its children (both kept and forgotten), so the estimates only grow as the
+// search learns more. The solution is optimal when the budget can hold its path;
+// when no path to the goal fits in the budget, the search ends without a solution instead of running out of heap.
+// It does not keep a closed set, so only the move that undoes the last one is skipped.
+public class MemoryBoundedAStar {
+	// An estimate of the heap bytes used by one node (about 72 for the node, 32 for its array of children and
+	// 40 for each of its entries in the queue and the leaves, with compressed references), used to turn a byte
+	// budget into a node budget
+	public static final int BYTES_PER_NODE = 184;
+	private static final int INFINITY = Integer.MAX_VALUE;
+
+	private final PackedState layout; // the layout of the packed states
+	private final long goalState; // the packed goal
+	private final Heuristic heuristic; // the heuristic made for the goal
+	private final long maxNodes; // the largest number of nodes that are kept
+	// The nodes that can be expanded (the leaves and the nodes with forgotten children), from the best to the worst
+	private final TreeSet<Node> queue = new TreeSet<>(MemoryBoundedAStar::compare);
+	// The nodes without children except the root, in the same order, the last one is dropped first
+	private final TreeSet<Node> leaves = new TreeSet<>(MemoryBoundedAStar::compare);
+	private Node expanding; // the node whose children are being generated, it is not in the queue meanwhile
+	private long nodes; // the number of nodes that are kept
+	private long createdNodes; // the number of nodes created so far, which gives each node its id
+	private long expandedNodes; // the number of nodes expanded
+	private long prunedNodes; // the number of leaves dropped to stay within the budget
+	private long deadline = Alg.NO_DEADLINE; // the System.nanoTime value at which the search gives up
+
+	// A constructor that prepares a search towards the goal that keeps at most maxNodes nodes
+	public MemoryBoundedAStar(PackedState layout, long goalState, Heuristic heuristic, long maxNodes) {
+		if (maxNodes < 2) {
+			throw new IllegalArgumentException("The search needs room for at least 2 nodes");
+		}
+		this.layout = layout;
+		this.goalState = goalState;
+		this.heuristic = heuristic;
+		this.maxNodes = maxNodes;
+	}
+
+	// A method that returns the number of nodes that fit in the given number of bytes (see BYTES_PER_NODE)
+	public static long nodesFor(long bytes) {
+		return bytes / BYTES_PER_NODE;
+	}
+
+	// A method that runs the search from the initial state and returns the solution, or null if no path to the
+	// goal fits in the budget. The goal must be reachable, otherwise the search only ends at the deadline.
+	// A search object can only be used once.
+	public Solution solve(long initialState) {
+		int initialHeuristic = heuristic.estimate(initialState);
+		Node root = new Node(initialState, null, Alg.NO_MOVE, 0, initialHeuristic, initialHeuristic);
+		enqueue(root);
+		// A loop that continues till the best node is the goal or no node can lead to it
+		while (true) {
+			Node current = queue.first();
+			if (current.f == INFINITY) {
+				return null; // Every path to the goal is longer than the budget can hold
+			}
+			if (current.state == goalState) {
+				return path(current);
+			}
+			expandedNodes++;
+			if ((expandedNodes & (Alg.CANCEL_CHECK_INTERVAL - 1)) == 0) {
+				Alg.checkCancelled(Thread.currentThread(), deadline);
+			}
+			expand(current);
+		}
+	}
+
+	// An inner method that generates the children of a node that are not kept (all of them on the first
+	// expansion, the forgotten ones later) and backs up its new f
+	private void expand(Node current) {
+		dequeue(current);
+		expanding = current;
+		for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+			if ((current.missing & 1 << move) == 0) {
+				continue;
+			}
+			current.missing &= ~(1 << move);
+			long next = layout.move(current.state, move);
+			// A child whose path fills the budget can not have children, so it is only kept if it is the goal
+			if (current.cost + 2 >= maxNodes && next != goalState) {
+				continue;
+			}
+			int nextHeuristic = heuristic.update(current.state, next, current.heuristic);
+			int f = Math.max(current.cost + 1 + nextHeuristic, current.f);
+			if (current.forgotten != null) {
+				// A forgotten child gets back the f it had when it was dropped
+				f = Math.max(f, current.forgotten[move]);
+			}
+			// Make room by dropping the worst leaf. If the child would be the worst one, it is forgotten right
+			// away instead, and it is generated again when the node is the best one.
+			if (nodes >= maxNodes && !pruneWorstLeaf(f, current.cost + 1)) {
+				current.forget(move, f);
+				continue;
+			}
+			Node child = new Node(next, current, move, current.cost + 1, nextHeuristic, f);
+			current.children[move] = child;
+			if (current.childCount++ == 0) {
+				leaves.remove(current);
+			}
+			leaves.add(child);
+			enqueue(child);
+		}
+		expanding = null;
+		backup(current);
+		enqueue(current);
+	}
+
+	// An inner method that drops the worst leaf to make room for a child with the given f and cost, returns false
+	// if that child would be worse than every leaf
+	private boolean pruneWorstLeaf(int f, int cost) {
+		for (Node node : leaves.descendingSet()) {
+			if (node == expanding) {
+				continue; // the node that gets the child can not be dropped
+			}
+			if (node.f < f || node.f == f && node.cost > cost) {
+				return false;
+			}
+			leaves.remove(node);
+			dequeue(node);
+			Node parent = node.parent;
+			dequeue(parent);
+			parent.children[node.move] = null;
+			parent.childCount--;
+			if (node.f != INFINITY) {
+				parent.forget(node.move, node.f);
+			}
+			// A child without any path that fits in the budget is dropped for good, which can raise the f of
+			// the parent
+			backup(parent);
+			if (parent.childCount == 0 && parent.parent != null) {
+				leaves.add(parent);
+			}
+			enqueue(parent);
+			nodes--;
+			prunedNodes++;
+			return true;
+		}
+		return false;
+	}
+
+	// An inner method that sets the f of a node to the lowest f of its children (kept and forgotten) and passes
+	// the change on to the ancestors whose f depends on it
+	private void backup(Node node) {
+		while (node != null && node != expanding) {
+			int f = INFINITY;
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				if (node.children[move] != null) {
+					f = Math.min(f, node.children[move].f);
+				} else if ((node.missing & 1 << move) != 0) {
+					f = Math.min(f, node.forgotten[move]);
+				}
+			}
+			f = Math.max(f, node.f); // the estimates never get smaller
+			if (f == node.f) {
+				return;
+			}
+			// The sets are ordered by f, so the node is taken out of them while its f changes
+			boolean queued = node.queued;
+			boolean leaf = leaves.remove(node);
+			dequeue(node);
+			node.f = f;
+			if (queued) {
+				enqueue(node);
+			}
+			if (leaf) {
+				leaves.add(node);
+			}
+			node = node.parent;
+		}
+	}
+
+	// An inner method that adds a node to the queue if it can be expanded: it is a leaf or some of its children
+	// are forgotten
+	private void enqueue(Node node) {
+		if (!node.queued && node != expanding && (node.missing != 0 || node.childCount == 0)) {
+			queue.add(node);
+			node.queued = true;
+		}
+	}
+
+	// An inner method that takes a node out of the queue
+	private void dequeue(Node node) {
+		if (node.queued) {
+			queue.remove(node);
+			node.queued = false;
+		}
+	}
+
+	// An inner method that collects the moves from the root to a node
+	private Solution path(Node node) {
+		int[] moves = new int[32];
+		int length = 0;
+		while (node.parent != null) {
+			if (length == moves.length) {
+				moves = Arrays.copyOf(moves, length * 2);
+			}
+			moves[length++] = node.move;
+			node = node.parent;
+		}
+		return Solution.ofReversed(layout.decode(node.state), moves, length);
+	}
+
+	// The order of the queue: the lowest f first, then the deepest node, then the newest one
+	private static int compare(Node a, Node b) {
+		if (a.f != b.f) {
+			return Integer.compare(a.f, b.f);
+		}
+		if (a.cost != b.cost) {
+			return Integer.compare(b.cost, a.cost);
+		}
+		return Long.compare(b.id, a.id);
+	}
+
+	// A getter for the number of nodes expanded by the search
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	// A getter for the number of leaves that were dropped to stay within the budget
+	public long getPrunedNodes() {
+		return prunedNodes;
+	}
+
+	// A setter for the System.nanoTime value at which the search gives up by throwing a CancellationException
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// A node of the search tree: a state reached by a path from the initial state
+	private final class Node {
+		private final long state;
+		private final Node parent;
+		private final int move; // the move from the parent
+		private final int cost; // the number of moves from the initial state
+		private final int heuristic;
+		private final long id;
+		private final Node[] children = new Node[4]; // the kept children by move
+		private int childCount;
+		private int f; // the lowest f of the paths through the node that are known so far
+		private int[] forgotten; // the f of each child that was dropped, created when the first one is dropped
+		private int missing; // the moves whose children have to be generated (not kept and not dropped for good)
+		private boolean queued; // whether the node is in the queue
+
+		private Node(long state, Node parent, int move, int cost, int heuristic, int f) {
+			this.state = state;
+			this.parent = parent;
+			this.move = move;
+			this.cost = cost;
+			this.heuristic = heuristic;
+			this.f = f;
+			this.id = createdNodes++;
+			nodes++;
+			// Every possible move except the one that undoes the last move
+			for (int next = PackedState.UP; next <= PackedState.RIGHT; next++) {
+				if (next != (move ^ 1) && layout.move(state, next) != PackedState.NONE) {
+					missing |= 1 << next;
+				}
+			}
+		}
+
+		// A method that drops the child of a move, it is generated again with the given f
+		private void forget(int move, int f) {
+			if (forgotten == null) {
+				forgotten = new int[4];
+			}
+			forgotten[move] = f;
+			missing |= 1 << move;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+// The open set of the solver: a queue of packed states (see the PackedState class) that pops the state
+// with the lowest f = cost + heuristic first, breaking ties by the smaller heuristic.
+// Pushing a state that is already queued only keeps it if the new cost is smaller (decrease-key).
+public interface OpenList {
+	// A method that queues a state or lowers its cost, returns true if the queue changed
+	boolean push(long state, int cost, int heuristic, int move);
+
+	// A method that returns the cost of a queued state, or -1 if the state is not queued
+	int costOf(long state);
+
+	// Getters for the state with the lowest f and its data (the queue must not be empty)
+	long peekState();
+
+	int peekCost();
+
+	int peekHeuristic();
+
+	int peekMove();
+
+	// A method that removes the state with the lowest f and returns it
+	long pop();
+
+	// A method that removes all states
+	void clear();
+
+	// A getter for the number of queued states
+	int size();
+
+	// A method that checks if there are no queued states
+	boolean isEmpty();
+}
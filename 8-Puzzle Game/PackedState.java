@@ -0,0 +1,231 @@
+import java.util.Arrays; // used for printing the cells of a state
+
+// A class that packs a board state into a single long so that the search can work on primitive values
+// instead of Board objects. Each cell takes 4 bits (cell 0 is in the lowest bits, the empty cell is stored
+// as 0), so boards up to 4 x 4 fit. For the smaller boards the index of the empty cell is kept in the 4 bits
+// above the cells (bits 36-39 on the 3 x 3 board), the 16 cells of the 4 x 4 board fill the whole long and
+// the empty cell is found as the only cell that holds 0. Two packed states are equal exactly when their long
+// values are equal, so == can be used instead of equals.
+//
+// There is one instance for each board width (see the of method), which knows the layout of that width.
+public final class PackedState {
+	// The moves of the empty cell (the inverse of a move is always move ^ 1)
+	public static final int UP = 0;
+	public static final int DOWN = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+	// A value returned when a move is not possible (no valid packed state has every cell set to 15)
+	public static final long NONE = -1L;
+	// The widest board that fits in a long
+	public static final int MAX_WIDTH = 4;
+
+	// a mask that covers the 4 bits of a single cell
+	private static final long CELL_MASK = 0xFL;
+	// a mask with the lowest bit of every cell
+	private static final long LOW_BITS = 0x1111111111111111L;
+	// the layout of each supported width
+	private static final PackedState[] LAYOUTS = { null, null, new PackedState(2), new PackedState(3),
+			new PackedState(4) };
+
+	private final int width; // the width of the board
+	private final int size; // the number of cells
+	private final int blankShift; // the bit offset of the empty cell index, or -1 if it is not stored
+
+	// A constructor for the layout of the given width, use the of method to get it
+	private PackedState(int width) {
+		this.width = width;
+		this.size = width * width;
+		this.blankShift = size < 16 ? 4 * size : -1;
+	}
+
+	// A method that returns the layout for boards of the given width
+	public static PackedState of(int width) {
+		if (width < 2 || width > MAX_WIDTH)
+			throw new IllegalArgumentException("Packed states only support widths 2 to " + MAX_WIDTH + ", not " + width);
+		return LAYOUTS[width];
+	}
+
+	// A getter for the width of the board
+	public int getWidth() {
+		return width;
+	}
+
+	// A getter for the number of cells
+	public int getSize() {
+		return size;
+	}
+
+	// A method that packs a flattened board (as returned by Board.getCurrentState) into a long
+	public long encode(int[] cells) {
+		long state = 0;
+		int blank = 0;
+		for (int i = 0; i < size; i++) {
+			state |= (long) cells[i] << (4 * i);
+			// remember where the empty cell is
+			if (cells[i] == 0)
+				blank = i;
+		}
+		return blankShift < 0 ? state : state | (long) blank << blankShift;
+	}
+
+	// A method that unpacks a state back into a flattened board
+	public int[] decode(long state) {
+		int[] cells = new int[size];
+		for (int i = 0; i < size; i++)
+			cells[i] = tileAt(state, i);
+		return cells;
+	}
+
+	// A method that returns the tile number on the given cell (0 for the empty cell)
+	public static int tileAt(long state, int index) {
+		return (int) ((state >>> (4 * index)) & CELL_MASK);
+	}
+
+	// A method that returns the index of the empty cell
+	public int blank(long state) {
+		if (blankShift >= 0)
+			return (int) (state >>> blankShift);
+		// fold the 4 bits of every cell into its lowest bit, the only cell left without it holds 0
+		long bits = state | state >>> 1;
+		bits |= bits >>> 2;
+		return Long.numberOfTrailingZeros(~bits & LOW_BITS) >>> 2;
+	}
+
+	// A method that moves the empty cell and returns the new state, or NONE if the move is not possible
+	public long move(long state, int move) {
+		int blank = blank(state);
+		int target; // the index of the cell that the empty cell is swapped with
+		switch (move) {
+		case UP:
+			if (blank < width)
+				return NONE;
+			target = blank - width;
+			break;
+		case DOWN:
+			if (blank >= size - width)
+				return NONE;
+			target = blank + width;
+			break;
+		case LEFT:
+			if (blank % width == 0)
+				return NONE;
+			target = blank - 1;
+			break;
+		case RIGHT:
+			if (blank % width == width - 1)
+				return NONE;
+			target = blank + 1;
+			break;
+		default:
+			return NONE;
+		}
+		// slide the tile on the target cell into the empty cell and store the new empty cell index
+		long tile = (state >>> (4 * target)) & CELL_MASK;
+		state &= ~(CELL_MASK << (4 * target));
+		state |= tile << (4 * blank);
+		if (blankShift < 0)
+			return state;
+		return (state & ~(CELL_MASK << blankShift)) | (long) target << blankShift;
+	}
+
+	// A method that mixes the bits of a state into a well distributed int hash
+	public static int hash(long state) {
+		// the finalizer of the 64 bit MurmurHash3
+		state ^= state >>> 33;
+		state *= 0xff51afd7ed558ccdL;
+		state ^= state >>> 33;
+		state *= 0xc4ceb9fe1a85ec53L;
+		state ^= state >>> 33;
+		return (int) state;
+	}
+
+	// A method that returns the goal index of each tile number, used by the manhattan distance
+	public int[] goalPositions(long goal) {
+		int[] positions = new int[size];
+		positions(goal, positions);
+		return positions;
+	}
+
+	// A method that fills the array with the cell of every tile number (index 0 is the empty cell)
+	public void positions(long state, int[] tileCells) {
+		for (int i = 0; i < size; i++)
+			tileCells[tileAt(state, i)] = i;
+	}
+
+	// A method that counts the tiles that are not on their goal cell (the empty cell is not counted)
+	public int misplaced(long state, long goal) {
+		int heuristic = 0;
+		for (int i = 0; i < size; i++) {
+			int tile = tileAt(state, i);
+			if (tile != 0 && tile != tileAt(goal, i))
+				heuristic++;
+		}
+		return heuristic;
+	}
+
+	// A method that sums the manhattan distances of all tiles to their goal cells
+	public int manhattan(long state, int[] goalPositions) {
+		int heuristic = 0;
+		for (int i = 0; i < size; i++) {
+			int tile = tileAt(state, i);
+			if (tile != 0) {
+				int goal = goalPositions[tile];
+				heuristic += Math.abs(i / width - goal / width) + Math.abs(i % width - goal % width);
+			}
+		}
+		return heuristic;
+	}
+
+	// A method that returns the heuristic table (see the static method below) for the given packed goal
+	public int[] heuristicTable(long goal, int n) {
+		return heuristicTable(width, goalPositions(goal), n);
+	}
+
+	// A method that returns a table with the heuristic contribution of each tile on each cell of a width x width
+	// board, stored at index tile * cells + cell. Moving one tile only changes its own entry, so a search that
+	// applies moves in place can update the heuristic in constant time (n selects the heuristic as in the
+	// heuristic method). It does not pack anything, so it also serves boards that are too wide to be packed.
+	public static int[] heuristicTable(int width, int[] goalPositions, int n) {
+		int cells = width * width;
+		int[] table = new int[cells * cells];
+		for (int tile = 1; tile < cells; tile++) {
+			int goalCell = goalPositions[tile];
+			for (int cell = 0; cell < cells; cell++) {
+				if (n == 0)
+					table[tile * cells + cell] = cell == goalCell ? 0 : 1;
+				else if (n == 1 || n == 3)
+					table[tile * cells + cell] = Math.abs(cell / width - goalCell / width)
+							+ Math.abs(cell % width - goalCell % width);
+			}
+		}
+		return table;
+	}
+
+	// A method that returns the heuristic of next, which is one move away from state, by updating the heuristic
+	// of state with a table from the heuristicTable method. Only the moved tile changes its cell (and its
+	// distance changes by exactly 1 for the manhattan distance), so this takes constant time.
+	public int updateHeuristic(int[] table, long state, long next, int heuristic) {
+		int oldCell = blank(next); // the moved tile was on the cell that becomes empty
+		int newCell = blank(state);
+		int tile = tileAt(state, oldCell);
+		return heuristic - table[tile * size + oldCell] + table[tile * size + newCell];
+	}
+
+	// A method that returns the heuristic selected by n (0 for misplaced tiles, 1 for manhattan distance,
+	// 3 for manhattan distance with linear conflicts)
+	public int heuristic(long state, long goal, int[] goalPositions, int n) {
+		if (n == 0)
+			return misplaced(state, goal);
+		else if (n == 1)
+			return manhattan(state, goalPositions);
+		else if (n == 3)
+			return manhattan(state, goalPositions) + LinearConflict.count(this, state, goalPositions);
+		else
+			return 0;
+	}
+
+	// A method that converts a state into a readable string such as "[1, 2, 3, 4, 5, 6, 7, 8, 0]"
+	public String toString(long state) {
+		return Arrays.toString(decode(state));
+	}
+}
@@ -0,0 +1,349 @@
+import java.util.Arrays; // used for growing the moves of the solution
+import java.util.concurrent.CancellationException; // thrown when the search is interrupted or runs past its deadline
+import java.util.concurrent.ConcurrentLinkedQueue; // used for the lock-free mailboxes of the workers
+import java.util.concurrent.atomic.AtomicInteger; // used for the cost of the best solution found so far
+import java.util.concurrent.atomic.AtomicLong; // used for the termination detection
+import java.util.concurrent.atomic.AtomicReference; // used for passing a failure of a worker to the caller
+import java.util.concurrent.locks.LockSupport; // used for waiting when a worker has nothing to do
+
+// A parallel A* search (hash distributed A*, HDA*). Every worker thread owns the states whose hash falls into
+// its partition and keeps its own open and closed sets, so the search itself needs no locks. A worker expands
+// its own states and sends each generated state to the owner, batched into messages that go through lock-free
+// queues (the mailboxes). The owner checks the state against its closed set when the message arrives.
+//
+// The workers expand in parallel, so the first goal found is not necessarily optimal: it only gives an upper
+// bound, and the workers go on until none of them has a queued state with f below that bound. The search ends
+// when every worker is idle and no message is on its way. Both are counted by a single atomic counter (the
+// number of active workers plus the number of states in messages that have not been processed), which only
+// reaches 0 when no work is left and can never leave 0 again.
+public class ParallelAStar {
+	// The number of states collected for another worker before they are sent as one message
+	private static final int BATCH_SIZE = 128;
+	// The number of expansions after which the collected states are sent even if the batches are not full
+	private static final int FLUSH_INTERVAL = 1024;
+	// The time an idle worker waits before it checks its mailbox again
+	private static final long IDLE_WAIT_NANOS = 20_000;
+
+	private final PackedState layout; // the layout of the packed states
+	private final long goalState; // the packed goal
+	private final int[] goalPositions; // the goal cell of every tile number
+	private final int[] table; // the heuristic of each tile on each cell (see PackedState.heuristicTable)
+	private final int n; // the heuristic id, as in the Alg class
+	private final AdditivePatternDatabase patternDatabase; // the databases of the pattern database heuristic
+	private final int queue; // the open set implementation, as in the Alg class
+	private final Worker[] workers;
+
+	// The cost of the best solution found so far
+	private final AtomicInteger bestCost = new AtomicInteger(Integer.MAX_VALUE);
+	// The number of active workers plus the number of states in messages that were not processed yet
+	private final AtomicLong work = new AtomicLong();
+	// The first exception thrown by a worker, the other workers stop when it is set
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private long deadline = Alg.NO_DEADLINE; // the System.nanoTime value at which the search gives up
+
+	// A constructor that prepares a search with the given number of workers, patternDatabase is only used by the
+	// heuristic Alg.HEURISTIC_PATTERN_DATABASE (it is only read, so the workers can share it)
+	public ParallelAStar(PackedState layout, long goalState, int n, AdditivePatternDatabase patternDatabase, int queue,
+			int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		Heuristics.byId(n); // Reject the ids that have no heuristic, like Alg.solve does
+		this.layout = layout;
+		this.goalState = goalState;
+		this.goalPositions = layout.goalPositions(goalState);
+		this.table = layout.heuristicTable(goalState, n);
+		this.n = n;
+		this.patternDatabase = patternDatabase;
+		this.queue = queue;
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++)
+			workers[i] = new Worker(i);
+	}
+
+	// A method that runs the search from a packed state and returns the solution path, or null if there is none.
+	// A search object can only be used once.
+	public Solution solve(long initialState) {
+		Worker owner = workers[owner(initialState)];
+		owner.insert(initialState, 0, owner.heuristic(initialState), Alg.NO_MOVE);
+		work.set(workers.length); // every worker starts active
+		Thread[] threads = new Thread[workers.length];
+		for (int i = 0; i < workers.length; i++) {
+			threads[i] = new Thread(workers[i], "hda-worker-" + i);
+			threads[i].start();
+		}
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			while (true) {
+				try {
+					thread.join();
+					break;
+				} catch (InterruptedException e) {
+					// stop the workers and wait for them, they check the failure after every expansion
+					interrupted = true;
+					failure.compareAndSet(null, new CancellationException("The search was interrupted"));
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		if (failure.get() instanceof CancellationException)
+			throw (CancellationException) failure.get();
+		if (failure.get() != null)
+			throw new IllegalStateException("A search thread failed", failure.get());
+		if (bestCost.get() == Integer.MAX_VALUE)
+			return null; // When no solution is found
+		return reconstructPath(goalState);
+	}
+
+	// A setter for the System.nanoTime value at which the search gives up (see Alg.setDeadline)
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// A getter for the number of states expanded by all workers
+	public long getExpandedNodes() {
+		long total = 0;
+		for (Worker worker : workers)
+			total += worker.expanded;
+		return total;
+	}
+
+	// A getter for the number of states expanded by each worker
+	public long[] getThreadExpansions() {
+		long[] expansions = new long[workers.length];
+		for (int i = 0; i < workers.length; i++)
+			expansions[i] = workers[i].expanded;
+		return expansions;
+	}
+
+	// A getter for the expansion rate of each worker in states per second, measured over the time it ran
+	public double[] getExpansionRates() {
+		double[] rates = new double[workers.length];
+		for (int i = 0; i < workers.length; i++)
+			rates[i] = workers[i].expanded / Math.max(1e-9, workers[i].runNanos / 1e9);
+		return rates;
+	}
+
+	// A getter for the number of states that were sent to another worker
+	public long getSentNodes() {
+		long total = 0;
+		for (Worker worker : workers)
+			total += worker.sent;
+		return total;
+	}
+
+	// An inner method that returns the worker that owns a state. It takes the high bits of the product of the
+	// hash and the number of workers, so the low bits that the StateTable of the owner uses stay well mixed.
+	private int owner(long state) {
+		return (int) (((PackedState.hash(state) & 0xFFFFFFFFL) * workers.length) >>> 32);
+	}
+
+	// An inner method that rebuilds the solution from the closed sets after every worker has stopped
+	private Solution reconstructPath(long current) {
+		int[] moves = new int[32];
+		int length = 0;
+		int move;
+		// A loop to collect the moves from the last one until the initial state (which has no move) is reached
+		while ((move = Alg.closedMove(workers[owner(current)].closedSet.get(current,
+				Alg.closedEntry(0, Alg.NO_MOVE)))) != Alg.NO_MOVE) {
+			if (length == moves.length)
+				moves = Arrays.copyOf(moves, length * 2);
+			moves[length++] = move;
+			current = layout.move(current, move ^ 1); // Undo the move to go backwards to the previous state
+		}
+		return Solution.ofReversed(layout.decode(current), moves, length);
+	}
+
+	// A message: generated states for one worker with their cost, heuristic and move (see the info method)
+	private static class Batch {
+		private final long[] states = new long[BATCH_SIZE];
+		private final int[] infos = new int[BATCH_SIZE];
+		private int size;
+	}
+
+	// Inner methods that pack the cost, heuristic and move of a sent state into one int and read them back
+	private static int info(int cost, int heuristic, int move) {
+		return cost << 16 | heuristic << 3 | (move + 1);
+	}
+	private static int infoCost(int info) {
+		return info >>> 16;
+	}
+	private static int infoHeuristic(int info) {
+		return (info >>> 3) & 0x1FFF;
+	}
+	private static int infoMove(int info) {
+		return (info & 7) - 1;
+	}
+
+	// A worker thread with its partition of the open and closed sets
+	private class Worker implements Runnable {
+		private final int id;
+		private final OpenList openSet;
+		private final StateTable closedSet = new StateTable(1 << 12);
+		// the messages sent to this worker
+		private final ConcurrentLinkedQueue<Batch> mailbox = new ConcurrentLinkedQueue<>();
+		// the states collected for each of the other workers
+		private final Batch[] outbox = new Batch[workers.length];
+		// the cell of every tile number, used by the pattern database heuristic
+		private final int[] tileCells = new int[layout.getSize()];
+		// the statistics of the worker (written by the worker, read after it stopped)
+		private long expanded;
+		private long sent;
+		private long runNanos;
+
+		private Worker(int id) {
+			this.id = id;
+			openSet = queue == Alg.QUEUE_BUCKET ? new BucketQueue(1 << 12) : new IndexedHeap(1 << 12);
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			try {
+				search();
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			}
+			runNanos = System.nanoTime() - start;
+		}
+
+		// An inner method with the main loop of the worker
+		private void search() {
+			boolean active = true;
+			int sinceFlush = 0;
+			while (failure.get() == null) {
+				if (active)
+					receive();
+				if (!openSet.isEmpty() && openSet.peekCost() + openSet.peekHeuristic() < bestCost.get()) {
+					expand();
+					if (++sinceFlush == FLUSH_INTERVAL) {
+						flush();
+						sinceFlush = 0;
+						Alg.checkCancelled(Thread.currentThread(), deadline);
+					}
+					continue;
+				}
+				// Nothing in this partition can lead to a better solution: send everything that was collected
+				// and wait for messages, or stop when no worker is active and no message is on its way
+				if (active) {
+					flush();
+					sinceFlush = 0;
+					active = false;
+					work.decrementAndGet();
+				}
+				if (!mailbox.isEmpty()) {
+					// the message is still counted, so the counter cannot have reached 0
+					work.incrementAndGet();
+					active = true;
+				} else if (work.get() == 0) {
+					return;
+				} else {
+					LockSupport.parkNanos(IDLE_WAIT_NANOS);
+				}
+			}
+		}
+
+		// An inner method that pops the state with the lowest f, closes it and sends its neighbors to their owners
+		private void expand() {
+			int cost = openSet.peekCost();
+			int heuristic = openSet.peekHeuristic();
+			int lastMove = openSet.peekMove();
+			long current = openSet.pop();
+			closedSet.put(current, Alg.closedEntry(cost, lastMove));
+			expanded++;
+			if (current == goalState) {
+				// keep the cheapest solution, the other workers stop expanding states that cannot beat it
+				int best;
+				while (cost < (best = bestCost.get()) && !bestCost.compareAndSet(best, cost)) {
+				}
+				return;
+			}
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				// Skip the move that leads back to the parent, which is closed with a smaller cost
+				if (lastMove != Alg.NO_MOVE && move == (lastMove ^ 1))
+					continue;
+				long neighbor = layout.move(current, move);
+				if (neighbor == PackedState.NONE)
+					continue; // Ignore the impossible moves
+				int neighborHeuristic;
+				if (n == Alg.HEURISTIC_PATTERN_DATABASE) {
+					neighborHeuristic = heuristic(neighbor);
+				} else {
+					neighborHeuristic = layout.updateHeuristic(table, current, neighbor, heuristic);
+					if (n == Alg.HEURISTIC_LINEAR_CONFLICT)
+						neighborHeuristic += LinearConflict.delta(layout, current, neighbor, goalPositions);
+				}
+				if (cost + 1 + neighborHeuristic >= bestCost.get())
+					continue; // it cannot lead to a better solution
+				int target = owner(neighbor);
+				if (target == id)
+					insert(neighbor, cost + 1, neighborHeuristic, move);
+				else
+					send(target, neighbor, info(cost + 1, neighborHeuristic, move));
+			}
+		}
+
+		// An inner method that queues a state owned by this worker, unless it was already reached with a
+		// cost that is not larger (a closed state is opened again if the new path is shorter, as in Alg.solve)
+		private void insert(long state, int cost, int heuristic, int move) {
+			int closed = closedSet.get(state, -1);
+			if (closed >= 0 && Alg.closedCost(closed) <= cost)
+				return;
+			int queuedCost = openSet.costOf(state);
+			if (queuedCost < 0 || cost < queuedCost)
+				openSet.push(state, cost, heuristic, move);
+		}
+
+		// An inner method that adds a state to the batch of its owner and sends the batch when it is full
+		private void send(int target, long state, int info) {
+			Batch batch = outbox[target];
+			if (batch == null)
+				batch = outbox[target] = new Batch();
+			batch.states[batch.size] = state;
+			batch.infos[batch.size++] = info;
+			if (batch.size == BATCH_SIZE) {
+				post(target, batch);
+				outbox[target] = null;
+			}
+		}
+
+		// An inner method that sends every batch that is not empty
+		private void flush() {
+			for (int target = 0; target < outbox.length; target++) {
+				if (outbox[target] != null && outbox[target].size > 0) {
+					post(target, outbox[target]);
+					outbox[target] = null;
+				}
+			}
+		}
+
+		// An inner method that puts a batch into the mailbox of its owner, its states are counted first so that
+		// the counter never reaches 0 while they are on their way
+		private void post(int target, Batch batch) {
+			work.addAndGet(batch.size);
+			sent += batch.size;
+			workers[target].mailbox.add(batch);
+		}
+
+		// An inner method that inserts the states of all received messages
+		private void receive() {
+			Batch batch;
+			while ((batch = mailbox.poll()) != null) {
+				for (int i = 0; i < batch.size; i++) {
+					int info = batch.infos[i];
+					insert(batch.states[i], infoCost(info), infoHeuristic(info), infoMove(info));
+				}
+				work.addAndGet(-batch.size);
+			}
+		}
+
+		// An inner method that returns the heuristic of a state from scratch
+		private int heuristic(long state) {
+			if (n == Alg.HEURISTIC_PATTERN_DATABASE) {
+				layout.positions(state, tileCells);
+				return patternDatabase.estimate(tileCells);
+			}
+			return layout.heuristic(state, goalState, goalPositions, n);
+		}
+	}
+}
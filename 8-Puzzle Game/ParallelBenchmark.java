@@ -0,0 +1,39 @@
+// A benchmark for the parallel solver (see the ParallelAStar class): it solves deep 15-puzzle boards with an
+// increasing number of threads and prints the time, the speedup over one thread, the extra expansions caused
+// by the parallel search and the expansion rate of every thread. Run it with "java ParallelBenchmark", the
+// number of threads doubles up to an optional argument (the number of cores by default).
+public class ParallelBenchmark {
+	// The 15-puzzle boards: random walks of 90 moves from the goal
+	private static final int[][] FIFTEEN_PUZZLES = BenchmarkSet.randomWalks(4, 5, 6, 90);
+
+	public static void main(String[] args) {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		Board goal = new Board(BenchmarkSet.FIFTEEN_PUZZLE_GOAL);
+		Alg solver = new Alg();
+		// solve once untimed so that the JIT compiler is ready
+		solver.solveParallel(new Board(FIFTEEN_PUZZLES[0]), goal, Alg.HEURISTIC_LINEAR_CONFLICT, 1);
+		long singleThreadNanos = 0;
+		long singleThreadNodes = 0;
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			long nodes = 0;
+			double[] rates = new double[threads];
+			long start = System.nanoTime();
+			for (int[] instance : FIFTEEN_PUZZLES) {
+				solver.solveParallel(new Board(instance), goal, Alg.HEURISTIC_LINEAR_CONFLICT, threads);
+				nodes += solver.getExpandedNodes();
+				double[] instanceRates = solver.getParallelSearch().getExpansionRates();
+				for (int i = 0; i < threads; i++)
+					rates[i] += instanceRates[i] / FIFTEEN_PUZZLES.length;
+			}
+			long nanos = System.nanoTime() - start;
+			if (threads == 1) {
+				singleThreadNanos = nanos;
+				singleThreadNodes = nodes;
+			}
+			System.out.printf("%2d threads %9.1f ms %5.2fx speedup %+6.1f%% expansions%n", threads, nanos / 1e6,
+					(double) singleThreadNanos / nanos, 100.0 * (nodes - singleThreadNodes) / singleThreadNodes);
+			for (int i = 0; i < threads; i++)
+				System.out.printf("    thread %2d %12.0f expanded nodes/s%n", i, rates[i]);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+import java.util.ArrayList; // used for the child tasks
+import java.util.Arrays; // used for copying the move arrays
+import java.util.List; // used for the child tasks
+import java.util.concurrent.ForkJoinPool; // used for running the subtrees with work stealing
+import java.util.concurrent.RecursiveAction; // used for the tasks that search the subtrees
+import java.util.concurrent.atomic.AtomicInteger; // used for the bound of the next iteration
+import java.util.concurrent.atomic.AtomicReference; // used for the solution found by any of the tasks
+import java.util.concurrent.atomic.LongAdder; // used for counting the expanded states of all tasks
+
+// A parallel Iterative Deepening A* (IDA*) search. Every iteration splits the search tree: the states up to a
+// shallow depth are expanded by tasks that fork a child task for each move, and below that depth each task
+// runs the usual depth-first search on its own copy of the board. The tasks run on a ForkJoinPool, so idle
+// threads steal the subtrees that are still waiting. The smallest f above the bound, which becomes the next
+// bound, is shared through an atomic, and the first task that reaches the goal publishes its moves, which
+// makes every other task of the iteration stop at its next state. Nothing is packed, so it works for boards
+// of any size.
+public class ParallelIDAStar {
+	// Values returned by the depth-first search when the goal is found or when no bound can be exceeded
+	private static final int FOUND = -1;
+	private static final int INFINITY = Integer.MAX_VALUE;
+
+	private final int width; // the width of the board
+	private final int size; // the number of cells
+	private final int[] goalCells; // the tile of every cell of the goal
+	private final int[] goalPositions; // the goal cell of every tile number
+	private final int[] table; // the heuristic of each tile on each cell (see PackedState.heuristicTable)
+	private final int n; // the heuristic id, as in the Alg class
+	private final AdditivePatternDatabase patternDatabase; // the databases of the pattern database heuristic
+	private final int threads; // the parallelism of the pool
+	private final int splitDepth; // the depth up to which the tasks fork a task for each child
+
+	private int bound; // the bound of the current iteration
+	private final AtomicInteger nextBound = new AtomicInteger(); // the smallest f above the bound
+	private final AtomicReference<int[]> solution = new AtomicReference<>(); // the moves of the solution
+	private final LongAdder expandedNodes = new LongAdder();
+	private long deadline = Alg.NO_DEADLINE; // the System.nanoTime value at which the search gives up
+	private Thread caller; // the thread that waits for the search, the tasks stop when it is interrupted
+
+	// A constructor that prepares a search for the given goal, patternDatabase is only used by the heuristic
+	// Alg.HEURISTIC_PATTERN_DATABASE (it is only read, so the tasks can share it)
+	public ParallelIDAStar(Board goal, int n, AdditivePatternDatabase patternDatabase, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		Heuristics.byId(n); // Reject the ids that have no heuristic, like Alg.solve does
+		this.width = goal.getSize();
+		this.size = width * width;
+		this.goalCells = goal.getCurrentState();
+		this.goalPositions = Alg.cellsOfTiles(goalCells);
+		this.table = PackedState.heuristicTable(width, goalPositions, n);
+		this.n = n;
+		this.patternDatabase = patternDatabase;
+		this.threads = threads;
+		// about 2 children per state, so this gives 32 or more subtrees for each thread
+		this.splitDepth = 5 + 32 - Integer.numberOfLeadingZeros(threads - 1);
+	}
+
+	// A method that runs the search and returns the solution path, or null if there is none.
+	// A search object can only be used once.
+	public Solution solve(Board initial) {
+		int[] cells = initial.getCurrentState();
+		// Every iteration would search the whole tree again with a larger bound, so a board that can not reach
+		// the goal is answered right away (see Alg.solveIDA)
+		if (Alg.isSolvable(cells) != Alg.isSolvable(goalCells))
+			return null;
+		int[] tileCells = Alg.cellsOfTiles(cells);
+		// Calculate the heuristic of the initial state, the moves update it from here on
+		int heuristic = 0;
+		for (int cell = 0; cell < size; cell++)
+			heuristic += table[cells[cell] * size + cell];
+		if (n == Alg.HEURISTIC_PATTERN_DATABASE)
+			heuristic = patternDatabase.estimate(tileCells);
+		else if (n == Alg.HEURISTIC_LINEAR_CONFLICT)
+			heuristic += LinearConflict.count(cells, width, goalPositions);
+
+		caller = Thread.currentThread();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			// A loop that repeats the search with the smallest f that exceeded the previous bound
+			bound = heuristic;
+			while (true) {
+				nextBound.set(INFINITY);
+				pool.invoke(new SearchTask(new Board(cells), cells, tileCells, 0, heuristic, Alg.NO_MOVE, new int[0]));
+				if (solution.get() != null)
+					return Solution.of(initial, solution.get());
+				if (nextBound.get() == INFINITY)
+					return null; // When no solution is found
+				bound = nextBound.get();
+			}
+		} finally {
+			// Interrupt the tasks that are still running when the search gives up
+			pool.shutdownNow();
+		}
+	}
+
+	// A setter for the System.nanoTime value at which the search gives up (see Alg.setDeadline)
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// A getter for the number of states expanded by all tasks
+	public long getExpandedNodes() {
+		return expandedNodes.sum();
+	}
+
+	// An inner method that returns the heuristic after the tile on the cell from slides into the empty cell to.
+	// cells still holds the state before the move and tileCells the state after it.
+	private int nextHeuristic(int[] cells, int[] tileCells, int from, int to, int heuristic) {
+		if (n == Alg.HEURISTIC_PATTERN_DATABASE)
+			return patternDatabase.estimate(tileCells);
+		int tile = cells[from];
+		int next = heuristic - table[tile * size + from] + table[tile * size + to];
+		if (n == Alg.HEURISTIC_LINEAR_CONFLICT)
+			next += LinearConflict.delta(cells, width, from, to, goalPositions);
+		return next;
+	}
+
+	// A task that searches the subtree of one state with its own copy of the board
+	private class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Board board; // the board of the state, changed in place by the depth-first search
+		private final int[] cells; // the tile of every cell
+		private final int[] tileCells; // the cell of every tile number
+		private final int cost;
+		private final int heuristic;
+		private final int lastMove;
+		private int[] moves; // the moves from the initial state, the depth-first search extends them in place
+		private long expanded; // the states expanded by the depth-first search of this task
+
+		private SearchTask(Board board, int[] cells, int[] tileCells, int cost, int heuristic, int lastMove,
+				int[] moves) {
+			this.board = board;
+			this.cells = cells;
+			this.tileCells = tileCells;
+			this.cost = cost;
+			this.heuristic = heuristic;
+			this.lastMove = lastMove;
+			this.moves = moves;
+		}
+
+		@Override
+		protected void compute() {
+			if (solution.get() != null)
+				return; // another task has already found the goal
+			if (cost < splitDepth) {
+				split();
+				return;
+			}
+			moves = Arrays.copyOf(moves, Math.max(bound, cost));
+			int result = search(cost, heuristic, lastMove);
+			expandedNodes.add(expanded);
+			if (result == FOUND)
+				solution.compareAndSet(null, moves);
+			else
+				nextBound.accumulateAndGet(result, Math::min);
+		}
+
+		// An inner method that forks a task for every child of the state and waits for them
+		private void split() {
+			int f = cost + heuristic;
+			if (f > bound) {
+				nextBound.accumulateAndGet(f, Math::min);
+				return;
+			}
+			// The heuristics are 0 on the goal state, so the cells are only compared with the goal when it is 0
+			if (heuristic == 0 && Arrays.equals(cells, goalCells)) {
+				solution.compareAndSet(null, moves);
+				return;
+			}
+			expandedNodes.increment();
+			Alg.checkCancelled(caller, deadline);
+			List<SearchTask> children = new ArrayList<>(4);
+			int emptyCell = board.getEmptyCellRow() * width + board.getEmptyCellCol();
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				// Skip the move that undoes the previous one, it leads back to the parent
+				if (lastMove != Alg.NO_MOVE && move == (lastMove ^ 1))
+					continue;
+				Board child = new Board(cells);
+				if (!Alg.applyMove(child, move))
+					continue;
+				int newEmptyCell = child.getEmptyCellRow() * width + child.getEmptyCellCol();
+				int[] childTileCells = tileCells.clone();
+				childTileCells[cells[newEmptyCell]] = emptyCell;
+				childTileCells[0] = newEmptyCell;
+				int childHeuristic = nextHeuristic(cells, childTileCells, newEmptyCell, emptyCell, heuristic);
+				int[] childMoves = Arrays.copyOf(moves, cost + 1);
+				childMoves[cost] = move;
+				children.add(new SearchTask(child, child.getCurrentState(), childTileCells, cost + 1, childHeuristic,
+						move, childMoves));
+			}
+			invokeAll(children);
+		}
+
+		// An inner method for the depth-first search below the split depth, returns FOUND or the smallest f
+		// above the bound (the same search as Alg.solveIDA, on the board of this task)
+		private int search(int cost, int heuristic, int lastMove) {
+			int f = cost + heuristic;
+			if (f > bound)
+				return f;
+			if (heuristic == 0 && Arrays.equals(cells, goalCells)) {
+				moves = Arrays.copyOf(moves, cost);
+				return FOUND;
+			}
+			if (solution.get() != null)
+				return INFINITY; // another task has found the goal, the result is not used
+			expanded++;
+			if ((expanded & (Alg.CANCEL_CHECK_INTERVAL - 1)) == 0)
+				Alg.checkCancelled(caller, deadline);
+			int min = INFINITY;
+			int emptyCell = board.getEmptyCellRow() * width + board.getEmptyCellCol();
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				// Skip the move that undoes the previous one, it leads back to the parent
+				if (lastMove != Alg.NO_MOVE && move == (lastMove ^ 1) || !Alg.applyMove(board, move))
+					continue;
+				int newEmptyCell = board.getEmptyCellRow() * width + board.getEmptyCellCol();
+				int tile = cells[newEmptyCell];
+				tileCells[tile] = emptyCell;
+				tileCells[0] = newEmptyCell;
+				int newHeuristic = nextHeuristic(cells, tileCells, newEmptyCell, emptyCell, heuristic);
+				cells[emptyCell] = tile;
+				cells[newEmptyCell] = 0;
+				moves[cost] = move;
+				int result = search(cost + 1, newHeuristic, move);
+				if (result == FOUND)
+					return FOUND;
+				Alg.applyMove(board, move ^ 1); // Undo the move before trying the next one
+				cells[newEmptyCell] = tile;
+				cells[emptyCell] = 0;
+				tileCells[tile] = newEmptyCell;
+				tileCells[0] = emptyCell;
+				min = Math.min(min, result);
+			}
+			return min;
+		}
+	}
+}
@@ -0,0 +1,217 @@
+import java.io.IOException; // thrown when the database file cannot be read or written
+import java.nio.ByteBuffer; // used for the file header
+import java.nio.channels.FileChannel; // used for reading and writing the database file
+import java.nio.file.Path; // used for the location of the database file
+import java.nio.file.StandardOpenOption; // used for opening the database file
+import java.util.Arrays; // used for initializing and comparing arrays
+
+// A pattern database: the exact number of moves of a group of tiles (the pattern) needed to bring them to
+// their goal cells, for every placement of those tiles on a width x width board. The other tiles are
+// treated as indistinguishable and only the moves of pattern tiles are counted, so the databases of
+// disjoint patterns can be added together and still never overestimate (see AdditivePatternDatabase).
+//
+// A placement is indexed by the partial permutation rank of the cells of the pattern tiles (see the
+// Permutations class) and each entry is a single byte. The database is created by a breadth-first search
+// backwards from the goal placement: moves of the empty cell into cells without pattern tiles cost
+// nothing, so the search flood fills the region of the empty cell and only moving a pattern tile starts
+// the next layer. While it runs, the search needs one bit for every placement and empty cell position.
+public class PatternDatabase {
+	// The file header: a magic number, the width of the board and the number of pattern tiles
+	private static final int MAGIC = 0x38504442; // "8PDB"
+	// The value of entries that have not been reached yet during the search
+	private static final byte UNSEEN = -1;
+
+	private final int width; // the width of the board
+	private final int cells; // the number of cells on the board
+	private final int[] tiles; // the tile numbers of the pattern
+	private final int[] goalCells; // the goal cell of every tile number (index 0 is the empty cell)
+	private final byte[] distances; // the number of pattern tile moves for each placement rank
+
+	// A constructor that wraps an existing database
+	private PatternDatabase(int width, int[] tiles, int[] goalCells, byte[] distances) {
+		this.width = width;
+		this.cells = width * width;
+		this.tiles = tiles;
+		this.goalCells = goalCells;
+		this.distances = distances;
+	}
+
+	// A method that creates the database of the given pattern tiles, goalCells holds the goal cell of every
+	// tile number (index 0 is the empty cell)
+	public static PatternDatabase build(int width, int[] goalCells, int[] tiles) {
+		int cells = width * width;
+		int k = tiles.length;
+		long size = Permutations.count(cells, k);
+		if (size > Integer.MAX_VALUE || size * cells / 64 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The pattern is too large: " + Arrays.toString(tiles));
+		byte[] distances = new byte[(int) size];
+		Arrays.fill(distances, UNSEEN);
+		long[] visited = new long[(int) ((size * cells + 63) / 64)]; // a bit for each placement and empty cell
+		int[][] neighbors = neighborCells(width);
+
+		int[] positions = new int[k]; // the cells of the pattern tiles in the placement that is expanded
+		int[] region = new int[cells]; // a stack for the flood fill of the empty cell
+		LongList layer = new LongList();
+		LongList nextLayer = new LongList();
+		for (int i = 0; i < k; i++)
+			positions[i] = goalCells[tiles[i]];
+		layer.add(Permutations.rankPartial(positions, k, cells) * cells + goalCells[0]);
+
+		// A loop over the layers, the placements in a layer need exactly distance pattern tile moves
+		for (int distance = 0; layer.size > 0; distance++) {
+			for (int item = 0; item < layer.size; item++) {
+				long rank = layer.values[item] / cells;
+				int start = (int) (layer.values[item] % cells);
+				if (isVisited(visited, rank * cells + start))
+					continue; // the region was already filled from another cell of it
+				if (distances[(int) rank] == UNSEEN)
+					distances[(int) rank] = (byte) distance;
+				Permutations.unrankPartial(rank, positions, k, cells);
+				long occupied = 0; // a bit for every cell that holds a pattern tile
+				for (int i = 0; i < k; i++)
+					occupied |= 1L << positions[i];
+
+				// flood fill the cells that the empty cell can reach without moving a pattern tile
+				int top = 0;
+				region[top++] = start;
+				setVisited(visited, rank * cells + start);
+				while (top > 0) {
+					int cell = region[--top];
+					for (int neighbor : neighbors[cell]) {
+						if ((occupied & (1L << neighbor)) == 0) {
+							if (!isVisited(visited, rank * cells + neighbor)) {
+								setVisited(visited, rank * cells + neighbor);
+								region[top++] = neighbor;
+							}
+							continue;
+						}
+						// slide the pattern tile on the neighbor into the empty cell, which costs one move
+						int tile = 0;
+						while (positions[tile] != neighbor)
+							tile++;
+						positions[tile] = cell;
+						long next = Permutations.rankPartial(positions, k, cells) * cells + neighbor;
+						positions[tile] = neighbor;
+						if (!isVisited(visited, next))
+							nextLayer.add(next);
+					}
+				}
+			}
+			// the next layer becomes the current one, the old list is reused
+			LongList done = layer;
+			layer = nextLayer;
+			nextLayer = done;
+			nextLayer.size = 0;
+		}
+		return new PatternDatabase(width, tiles.clone(), goalCells.clone(), distances);
+	}
+
+	// A method that loads a database saved by the save method
+	public static PatternDatabase load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(12);
+			readFully(channel, header);
+			if (header.getInt(0) != MAGIC)
+				throw new IOException("Not a pattern database: " + file);
+			int width = header.getInt(4);
+			int k = header.getInt(8);
+			int cells = width * width;
+			ByteBuffer numbers = ByteBuffer.allocate(4 * (k + cells));
+			readFully(channel, numbers);
+			int[] tiles = new int[k];
+			int[] goalCells = new int[cells];
+			numbers.asIntBuffer().get(tiles).get(goalCells);
+			byte[] distances = new byte[(int) Permutations.count(cells, k)];
+			readFully(channel, ByteBuffer.wrap(distances));
+			return new PatternDatabase(width, tiles, goalCells, distances);
+		}
+	}
+
+	// A method that writes the database to a file
+	public void save(Path file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(12 + 4 * (tiles.length + cells));
+		header.putInt(MAGIC).putInt(width).putInt(tiles.length);
+		for (int tile : tiles)
+			header.putInt(tile);
+		for (int cell : goalCells)
+			header.putInt(cell);
+		header.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer entries = ByteBuffer.wrap(distances);
+			while (header.hasRemaining())
+				channel.write(header);
+			while (entries.hasRemaining())
+				channel.write(entries);
+		}
+	}
+
+	// A method that returns the number of pattern tile moves needed, tileCells holds the cell of every tile number
+	public int distance(int[] tileCells) {
+		return distances[(int) Permutations.rankSelected(tileCells, tiles, cells)];
+	}
+
+	// A method that checks if the database was created for the given board width, goal and pattern tiles
+	public boolean matches(int width, int[] goalCells, int[] tiles) {
+		return this.width == width && Arrays.equals(this.goalCells, goalCells) && Arrays.equals(this.tiles, tiles);
+	}
+
+	// A getter for the tile numbers of the pattern
+	public int[] getTiles() {
+		return tiles.clone();
+	}
+
+	// A getter for the number of entries
+	public int size() {
+		return distances.length;
+	}
+
+	// An inner method that returns the cells next to each cell of a width x width board
+	private static int[][] neighborCells(int width) {
+		int[][] neighbors = new int[width * width][];
+		for (int cell = 0; cell < neighbors.length; cell++) {
+			int row = cell / width, col = cell % width;
+			int[] list = new int[4];
+			int count = 0;
+			if (row > 0)
+				list[count++] = cell - width;
+			if (row < width - 1)
+				list[count++] = cell + width;
+			if (col > 0)
+				list[count++] = cell - 1;
+			if (col < width - 1)
+				list[count++] = cell + 1;
+			neighbors[cell] = Arrays.copyOf(list, count);
+		}
+		return neighbors;
+	}
+
+	// Inner methods that read and set the bit of an index in a bit set
+	private static boolean isVisited(long[] bits, long index) {
+		return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
+	}
+
+	private static void setVisited(long[] bits, long index) {
+		bits[(int) (index >>> 6)] |= 1L << index;
+	}
+
+	// An inner method that reads from a channel until the buffer is full
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			if (channel.read(buffer) < 0)
+				throw new IOException("Unexpected end of the pattern database file");
+		buffer.flip();
+	}
+
+	// A growable array of longs that holds a layer of the search without boxing
+	private static class LongList {
+		private long[] values = new long[1024];
+		private int size;
+
+		private void add(long value) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size << 1);
+			values[size++] = value;
+		}
+	}
+}
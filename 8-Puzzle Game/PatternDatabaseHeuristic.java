@@ -0,0 +1,107 @@
+import java.util.Arrays; // used for the keys of the databases
+import java.util.Iterator; // used for dropping the least recently used databases
+import java.util.LinkedHashMap; // used for the databases in the order of their last use
+import java.util.Map; // used for the databases of each goal
+import java.util.concurrent.CompletableFuture; // used for the databases that are being built
+import java.util.concurrent.CompletionException; // thrown by join when a build failed
+import java.util.concurrent.Executor; // used for running a build
+import java.util.concurrent.RejectedExecutionException; // thrown when a build can not be started
+
+// The additive pattern database heuristic (see the AdditivePatternDatabase class) on packed states. A move only
+// changes the estimate of the group of the moved tile, by at most 1, but the estimate is looked up again after
+// every move instead of being updated.
+//
+// The class also keeps the default databases of the last goals that were used, which every solver shares.
+public class PatternDatabaseHeuristic implements Heuristic {
+	// The largest number of goals whose default databases are kept, the least recently used ones are dropped
+	public static final int MAX_CACHED_GOALS = 4;
+	// The default databases of each board width and goal, built or still being built, shared by all searches
+	private static final Map<String, CompletableFuture<AdditivePatternDatabase>> DATABASES =
+			new LinkedHashMap<>(16, 0.75f, true);
+
+	private final PackedState layout; // the layout of the packed states
+	private final AdditivePatternDatabase patternDatabase; // the databases made for the goal
+	private final int[] tileCells; // the cell of every tile number of the state that is estimated
+
+	// A constructor for a heuristic that uses the given databases, which must be made for the goal
+	public PatternDatabaseHeuristic(PackedState layout, AdditivePatternDatabase patternDatabase) {
+		this.layout = layout;
+		this.patternDatabase = patternDatabase;
+		this.tileCells = new int[layout.getSize()];
+	}
+
+	// A method that returns the factory of the heuristic with the default partition of each width, the databases
+	// are created the first time a goal is used
+	public static Heuristic.Factory factory() {
+		return (layout, goalState) -> new PatternDatabaseHeuristic(layout,
+				database(layout.getWidth(), layout.goalPositions(goalState)));
+	}
+
+	// A method that returns the databases with the default partition of a width for the goal with the given cell
+	// of every tile. The first caller for a goal builds them on its own thread before returning, the other callers for that goal
+	// wait for them.
+	public static AdditivePatternDatabase database(int width, int[] goalCells) {
+		try {
+			return databaseAsync(width, goalCells, Runnable::run).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+
+	// A method that returns the pending databases of a goal like database, but when they are not in the cache yet
+	// they are built by the executor, so the caller can wait for them with a time limit. The cache is only locked
+	// to find or add the entry, never while the databases are built, and only the MAX_CACHED_GOALS goals used last
+	// are kept. A build that fails is dropped from the cache, so the next caller tries again.
+	public static CompletableFuture<AdditivePatternDatabase> databaseAsync(int width, int[] goalCells,
+			Executor executor) {
+		String key = width + ":" + Arrays.toString(goalCells);
+		CompletableFuture<AdditivePatternDatabase> pending;
+		synchronized (DATABASES) {
+			pending = DATABASES.get(key);
+			if (pending != null)
+				return pending;
+			pending = new CompletableFuture<>();
+			DATABASES.put(key, pending);
+			if (DATABASES.size() > MAX_CACHED_GOALS) {
+				Iterator<CompletableFuture<AdditivePatternDatabase>> eldest = DATABASES.values().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+		}
+		CompletableFuture<AdditivePatternDatabase> built = pending;
+		int[] cells = goalCells.clone();
+		try {
+			executor.execute(() -> build(key, width, cells, built));
+		} catch (RejectedExecutionException e) {
+			forget(key, built, e);
+		}
+		return pending;
+	}
+
+	// An inner method that builds the databases of a cache entry
+	private static void build(String key, int width, int[] goalCells, CompletableFuture<AdditivePatternDatabase> built) {
+		try {
+			built.complete(AdditivePatternDatabase.build(width, goalCells, AdditivePatternDatabase.defaultPartition(width)));
+		} catch (RuntimeException | Error e) {
+			forget(key, built, e);
+		}
+	}
+
+	// An inner method that drops a cache entry whose build failed
+	private static void forget(String key, CompletableFuture<AdditivePatternDatabase> built, Throwable failure) {
+		synchronized (DATABASES) {
+			DATABASES.remove(key, built);
+		}
+		built.completeExceptionally(failure);
+	}
+
+	@Override
+	public int estimate(long state) {
+		layout.positions(state, tileCells);
+		return patternDatabase.estimate(tileCells);
+	}
+}
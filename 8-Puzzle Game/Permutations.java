@@ -0,0 +1,92 @@
+// A class that maps permutations to dense integer indexes (ranks) and back, which is what tables indexed by
+// board state need (visited bit sets, distance tables and pattern databases). The rank is the Lehmer code
+// read as a mixed radix number, so permutations are numbered in lexicographic order.
+//
+// Two kinds of permutations are supported:
+// - full permutations of 0..n-1 (n <= 20, so that n! fits in a long)
+// - partial permutations: k distinct values out of 0..n-1 (n <= 64), for example the cells of the k tiles
+//   of a pattern on a board with n cells, numbered from 0 to n!/(n-k)! - 1
+// The used values are kept in a 64 bit mask, so a Lehmer digit is a single bit count (O(1)) and the value
+// of a digit is found with a binary search over bit counts (O(log n)): ranking is O(n) and unranking is
+// O(n log n), without allocating anything.
+public final class Permutations {
+	// The class only has static methods, so it is not meant to be instantiated
+	private Permutations() {
+	}
+
+	// A method that returns the rank of a permutation of 0..n-1 (n is the length of the array)
+	public static long rank(int[] permutation) {
+		return rankPartial(permutation, permutation.length, permutation.length);
+	}
+
+	// A method that fills the array with the permutation of 0..n-1 that has the given rank (n is the length of the array)
+	public static void unrank(long rank, int[] permutation) {
+		unrankPartial(rank, permutation, permutation.length, permutation.length);
+	}
+
+	// A method that returns the rank of the first k values of the array, which are distinct values in 0..n-1
+	public static long rankPartial(int[] values, int k, int n) {
+		long rank = 0;
+		long used = 0; // a bit for each value seen so far
+		for (int i = 0; i < k; i++) {
+			int value = values[i];
+			// the Lehmer digit: the number of smaller values that are still unused
+			int digit = value - Long.bitCount(used & ((1L << value) - 1));
+			rank = rank * (n - i) + digit;
+			used |= 1L << value;
+		}
+		return rank;
+	}
+
+	// A method that returns the rank of the partial permutation values[indexes[0]], values[indexes[1]], ...
+	// (for example the cells of the tiles of a pattern, read from an array with the cell of every tile)
+	public static long rankSelected(int[] values, int[] indexes, int n) {
+		long rank = 0;
+		long used = 0;
+		for (int i = 0; i < indexes.length; i++) {
+			int value = values[indexes[i]];
+			int digit = value - Long.bitCount(used & ((1L << value) - 1));
+			rank = rank * (n - i) + digit;
+			used |= 1L << value;
+		}
+		return rank;
+	}
+
+	// A method that fills the first k entries of the array with the partial permutation of 0..n-1 that has the given rank
+	public static void unrankPartial(long rank, int[] values, int k, int n) {
+		// split the rank into its Lehmer digits, starting with the last one (radix n - k + 1)
+		for (int i = k - 1; i >= 0; i--) {
+			values[i] = (int) (rank % (n - i));
+			rank /= n - i;
+		}
+		// turn each digit into the value with that many smaller unused values
+		long unused = n == 64 ? -1L : (1L << n) - 1;
+		for (int i = 0; i < k; i++) {
+			int value = select(unused, values[i]);
+			values[i] = value;
+			unused &= ~(1L << value);
+		}
+	}
+
+	// A method that returns the number of partial permutations of k values out of n, n!/(n-k)!
+	public static long count(int n, int k) {
+		long count = 1;
+		for (int i = 0; i < k; i++)
+			count *= n - i;
+		return count;
+	}
+
+	// An inner method that returns the index of the set bit that has exactly k set bits below it
+	private static int select(long bits, int k) {
+		// binary search for the smallest position whose prefix (inclusive) holds k + 1 set bits
+		int low = 0, high = 63;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.bitCount(bits & ((2L << middle) - 1)) > k)
+				high = middle;
+			else
+				low = middle + 1;
+		}
+		return low;
+	}
+}
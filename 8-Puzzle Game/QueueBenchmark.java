@@ -0,0 +1,48 @@
+// A small benchmark that compares the throughput of the open set implementations (see Alg.QUEUE_HEAP and
+// Alg.QUEUE_BUCKET) on the hard 8-puzzle boards of the BenchmarkSet class and on 15-puzzle boards, whose
+// frontiers are much larger. Run it with "java QueueBenchmark".
+public class QueueBenchmark {
+	// The number of untimed rounds that let the JIT compiler warm up and the number of timed rounds
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+	// The 15-puzzle boards: random walks of 60 moves from the goal
+	private static final int[][] FIFTEEN_PUZZLES = BenchmarkSet.randomWalks(4, 1, 10, 60);
+
+	public static void main(String[] args) {
+		Board goal = new Board(BenchmarkSet.EIGHT_PUZZLE_GOAL);
+		Alg solver = new Alg();
+		// run both heuristics so that the queues are measured with small and large frontiers
+		for (int n = 0; n <= 1; n++) {
+			System.out.println(n == 0 ? "Misplaced tiles:" : "Manhattan distance:");
+			compare(solver, BenchmarkSet.HARD_EIGHT_PUZZLES, goal, n);
+		}
+		System.out.println("15-puzzle, manhattan distance:");
+		compare(solver, FIFTEEN_PUZZLES, new Board(BenchmarkSet.FIFTEEN_PUZZLE_GOAL), 1);
+	}
+
+	// An inner method that times both queues on the given instances and prints the results
+	private static void compare(Alg solver, int[][] instances, Board goal, int n) {
+		String[] names = { "heap", "bucket" };
+		for (int queue = Alg.QUEUE_HEAP; queue <= Alg.QUEUE_BUCKET; queue++) {
+			for (int round = 0; round < WARMUP_ROUNDS; round++)
+				solveAll(solver, instances, goal, n, queue);
+			long nodes = 0;
+			long start = System.nanoTime();
+			for (int round = 0; round < ROUNDS; round++)
+				nodes += solveAll(solver, instances, goal, n, queue);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("  %-7s %8.1f ms/round %12.0f expanded nodes/s%n", names[queue],
+					seconds * 1000 / ROUNDS, nodes / seconds);
+		}
+	}
+
+	// An inner method that solves every instance once and returns the number of expanded nodes
+	private static long solveAll(Alg solver, int[][] instances, Board goal, int n, int queue) {
+		long nodes = 0;
+		for (int[] instance : instances) {
+			solver.solve(new Board(instance), goal, n, queue);
+			nodes += solver.getExpandedNodes();
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,229 @@
+import java.nio.ByteBuffer; // used for converting a solution to bytes and back
+import java.util.ArrayList; // used for the list of boards
+import java.util.Iterator; // used for replaying the boards one by one
+import java.util.List; // used for the list of boards
+import java.util.NoSuchElementException; // thrown when the iterator has no more boards
+
+// A solution of a board: the initial board and the moves of the empty cell that lead to the goal. The moves
+// (PackedState.UP to RIGHT) take 2 bits each, 32 of them in a long, so a solution of the 8 puzzle takes about
+// as much memory as a single board. The boards along the solution are only created when they are iterated
+// (or asked for with toList), one move at a time. A solution never changes, so it can be shared, cached and
+// converted to bytes to be stored or sent.
+public final class Solution implements Iterable<Board> {
+	private final int[] initialState; // the tile of every cell of the initial board
+	private final long[] moves; // the moves, 2 bits each, the first one in the lowest bits of moves[0]
+	private final int offset; // the index of the first move of this solution in moves (shared by the suffixes)
+	private final int length; // the number of moves
+
+	// A constructor that is used by the methods that create solutions
+	private Solution(int[] initialState, long[] moves, int offset, int length) {
+		this.initialState = initialState;
+		this.moves = moves;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	// A method that creates the solution of a board from its moves
+	public static Solution of(Board initial, int[] moves) {
+		return of(initial.getCurrentState(), moves);
+	}
+
+	// A method that creates the solution of a flattened board from its moves
+	static Solution of(int[] initialState, int[] moves) {
+		long[] packed = new long[(moves.length + 31) >>> 5];
+		for (int i = 0; i < moves.length; i++)
+			packed[i >>> 5] |= (long) moves[i] << ((i & 31) << 1);
+		return new Solution(initialState.clone(), packed, 0, moves.length);
+	}
+
+	// A method that creates the solution of a flattened board from the first length of its moves in reverse
+	// order, as they are found by following the moves back from the goal
+	static Solution ofReversed(int[] initialState, int[] reversedMoves, int length) {
+		int[] moves = new int[length];
+		for (int i = 0; i < length; i++)
+			moves[i] = reversedMoves[length - 1 - i];
+		return of(initialState, moves);
+	}
+
+	// A getter for the number of moves
+	public int getLength() {
+		return length;
+	}
+
+	// A method that returns the move with the given index
+	public int getMove(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("Move " + index + " of a solution with " + length + " moves");
+		int bit = offset + index;
+		return (int) (moves[bit >>> 5] >>> ((bit & 31) << 1)) & 3;
+	}
+
+	// A method that returns all of the moves
+	public int[] getMoves() {
+		int[] result = new int[length];
+		for (int i = 0; i < length; i++)
+			result[i] = getMove(i);
+		return result;
+	}
+
+	// A method that returns the initial board
+	public Board getInitial() {
+		return new Board(initialState.clone());
+	}
+
+	// A method that returns the solution from the board after the first start moves, it shares the moves of this one
+	public Solution suffix(int start) {
+		if (start < 0 || start > length)
+			throw new IndexOutOfBoundsException("Suffix " + start + " of a solution with " + length + " moves");
+		int[] cells = initialState.clone();
+		int width = (int) Math.round(Math.sqrt(cells.length));
+		int emptyCell = emptyCell(cells);
+		for (int i = 0; i < start; i++)
+			emptyCell = applyMove(cells, width, emptyCell, getMove(i));
+		return new Solution(cells, moves, offset + start, length - start);
+	}
+
+	// A method that replays the boards from the initial one to the goal, one move at a time. Every board that is
+	// returned is new, so the caller can keep it.
+	@Override
+	public Iterator<Board> iterator() {
+		return new Iterator<Board>() {
+			private final int[] cells = initialState.clone();
+			private final int width = (int) Math.round(Math.sqrt(cells.length));
+			private int emptyCell = emptyCell(cells);
+			private int next = -1; // the index of the move that leads to the next board (-1 for the initial board)
+
+			@Override
+			public boolean hasNext() {
+				return next < length;
+			}
+
+			@Override
+			public Board next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				if (next >= 0)
+					emptyCell = applyMove(cells, width, emptyCell, getMove(next));
+				next++;
+				return new Board(cells.clone());
+			}
+		};
+	}
+
+	// A method that returns every board of the solution, from the initial board to the goal
+	public List<Board> toList() {
+		List<Board> totalPath = new ArrayList<>(length + 1);
+		for (Board board : this)
+			totalPath.add(board);
+		return totalPath;
+	}
+
+	// A method that converts the solution into bytes: the number of cells (2 bytes), the tile of every cell, the
+	// number of moves (4 bytes) and the moves, 4 in each byte
+	public byte[] toBytes() {
+		ByteBuffer buffer = ByteBuffer.allocate(2 + initialState.length + 4 + ((length + 3) >>> 2));
+		buffer.putShort((short) initialState.length);
+		for (int tile : initialState)
+			buffer.put((byte) tile);
+		buffer.putInt(length);
+		for (int i = 0; i < length; i += 4) {
+			int packed = 0;
+			for (int j = i; j < Math.min(i + 4, length); j++)
+				packed |= getMove(j) << ((j - i) << 1);
+			buffer.put((byte) packed);
+		}
+		return buffer.array();
+	}
+
+	// A method that reads a solution from the bytes made by toBytes. The bytes may come from a file or another
+	// program, so it throws an IllegalArgumentException when their length does not match, the tiles are not
+	// the numbers 0 to cells - 1 or a move would take the empty cell off the board.
+	public static Solution fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		if (buffer.remaining() < 2)
+			throw new IllegalArgumentException("Not a solution: " + bytes.length + " bytes");
+		int[] cells = new int[buffer.getShort() & 0xFFFF];
+		if (buffer.remaining() < cells.length + 4)
+			throw new IllegalArgumentException("Not a solution: " + bytes.length + " bytes for " + cells.length + " cells");
+		boolean[] seen = new boolean[cells.length];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = buffer.get() & 0xFF;
+			if (cells[i] >= cells.length || seen[cells[i]])
+				throw new IllegalArgumentException("The tiles of a solution are not the numbers 0 to " + (cells.length - 1));
+			seen[cells[i]] = true;
+		}
+		new Board(cells); // checks that the number of cells is a square
+		int length = buffer.getInt();
+		if (length < 0 || buffer.remaining() != (int) (((long) length + 3) >>> 2))
+			throw new IllegalArgumentException("Not a solution: " + bytes.length + " bytes for " + length + " moves");
+		int[] moves = new int[length];
+		for (int i = 0; i < moves.length; i += 4) {
+			int packed = buffer.get();
+			for (int j = i; j < Math.min(i + 4, moves.length); j++)
+				moves[j] = (packed >>> ((j - i) << 1)) & 3;
+		}
+		// Replay the moves on a copy of the board, as the iterator will
+		int[] replay = cells.clone();
+		int width = (int) Math.round(Math.sqrt(cells.length));
+		int emptyCell = emptyCell(replay);
+		for (int i = 0; i < moves.length; i++) {
+			if (!canMove(width, emptyCell, moves[i]))
+				throw new IllegalArgumentException("Move " + i + " of a solution takes the empty cell off the board");
+			emptyCell = applyMove(replay, width, emptyCell, moves[i]);
+		}
+		return of(cells, moves);
+	}
+
+	// A method that converts the moves into letters, such as "ULDR" (the direction the empty cell moves)
+	@Override
+	public String toString() {
+		StringBuilder letters = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			letters.append("UDLR".charAt(getMove(i)));
+		return letters.toString();
+	}
+
+	// An inner method that returns the index of the empty cell
+	private static int emptyCell(int[] cells) {
+		for (int cell = 0; cell < cells.length; cell++)
+			if (cells[cell] == 0)
+				return cell;
+		throw new IllegalArgumentException("A board needs an empty cell");
+	}
+
+	// An inner method that checks if the empty cell of a board with the given width can make a move
+	private static boolean canMove(int width, int emptyCell, int move) {
+		switch (move) {
+		case PackedState.UP:
+			return emptyCell >= width;
+		case PackedState.DOWN:
+			return emptyCell < width * (width - 1);
+		case PackedState.LEFT:
+			return emptyCell % width != 0;
+		default:
+			return emptyCell % width != width - 1;
+		}
+	}
+
+	// An inner method that moves the empty cell of a flattened board and returns its new index
+	private static int applyMove(int[] cells, int width, int emptyCell, int move) {
+		int target;
+		switch (move) {
+		case PackedState.UP:
+			target = emptyCell - width;
+			break;
+		case PackedState.DOWN:
+			target = emptyCell + width;
+			break;
+		case PackedState.LEFT:
+			target = emptyCell - 1;
+			break;
+		default:
+			target = emptyCell + 1;
+			break;
+		}
+		cells[emptyCell] = cells[target];
+		cells[target] = 0;
+		return target;
+	}
+}
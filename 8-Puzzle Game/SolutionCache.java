@@ -0,0 +1,194 @@
+import java.util.LinkedHashMap; // used for the entries of a segment in the order of their last use
+import java.util.Map; // used for the eldest entry of a segment
+import java.util.concurrent.atomic.LongAdder; // used for the hit, miss and eviction counters
+
+// A bounded cache of solutions that sits in front of the solvers. The solutions are stored under the packed
+// initial state and goal, and they only hold their moves, 2 bits each (see the Solution class), so an entry takes
+// a few dozen bytes instead of a list of boards. A cached solution never changes, so a hit returns it without any
+// copy, in well under a microsecond. Every heuristic of the Alg class is admissible and every
+// solver finds an optimal solution, so a cached solution serves any solver and heuristic.
+//
+// Every part of an optimal path that ends at the goal is an optimal path too, so every state on a solution is
+// cached as well: its entry shares the whole solution and only stores where its own part starts.
+// A player who makes some of the right moves and asks again gets the rest of the same solution at once.
+//
+// The cache is split into segments by the hash of the key, each one a LinkedHashMap in access order that is
+// locked on its own, so threads that use different boards rarely wait for each other. A segment removes its
+// least recently used entry when it is full. Boards larger than 4 x 4 cannot be packed and are solved without
+// the cache.
+public class SolutionCache {
+	// The number of segments, a power of 2
+	private static final int SEGMENTS = 16;
+	// The value stored for the boards that cannot be solved
+	private static final CachedPath UNSOLVABLE = new CachedPath(null, 0);
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder suffixHits = new LongAdder(); // the hits on states in the middle of a solution
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	// A constructor for a cache that keeps at most about capacity states (rounded up to a multiple of the number
+	// of segments), a solution of k moves takes k + 1 of them
+	public SolutionCache(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive, not " + capacity);
+		for (int i = 0; i < SEGMENTS; i++)
+			segments[i] = new Segment((capacity + SEGMENTS - 1) / SEGMENTS);
+	}
+
+	// A method that returns the solution of a board from the cache, or solves it with the given solver (one of
+	// the Alg.SOLVER_ constants) and heuristic and keeps it. Like the solvers, it returns null if there is no
+	// solution. The Alg object is only used on a miss and is not shared, so each thread needs its own.
+	public Solution solve(Alg alg, int solver, Board initial, Board goal, int n) {
+		if (initial.getSize() > PackedState.MAX_WIDTH)
+			return alg.solveWith(solver, initial, goal, n);
+		Key key = new Key(initial.toPackedState(), goal.toPackedState());
+		Segment segment = segments[key.hashCode() & (SEGMENTS - 1)];
+		CachedPath entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+		}
+		if (entry != null) {
+			hits.increment();
+			if (entry.start > 0)
+				suffixHits.increment();
+			if (entry.solution == null)
+				return null;
+			return entry.start == 0 ? entry.solution : entry.solution.suffix(entry.start);
+		}
+		misses.increment();
+		// Solve outside of the lock, two threads that miss the same board at once both solve it
+		Solution solution = alg.solveWith(solver, initial, goal, n);
+		if (solution == null) {
+			put(key, UNSOLVABLE);
+		} else {
+			putPath(key, solution, PackedState.of(initial.getSize()));
+		}
+		return solution;
+	}
+
+	// Getters for the number of hits (and of the hits on a state in the middle of a solution), misses and
+	// evicted entries and for the share of the lookups that hit
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getSuffixHits() {
+		return suffixHits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long lookups = getHits() + getMisses();
+		return lookups == 0 ? 0 : (double) getHits() / lookups;
+	}
+
+	// A method that returns the number of cached states
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	// A method that removes every cached solution (the counters are kept)
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	// An inner method that caches a solution for its initial state and every later state on it (the goal is
+	// cached with an empty solution). The states that are already cached keep their own solution.
+	private void putPath(Key key, Solution solution, PackedState layout) {
+		long state = key.state;
+		put(key, new CachedPath(solution, 0));
+		for (int i = 0; i < solution.getLength(); i++) {
+			state = layout.move(state, solution.getMove(i));
+			Key stateKey = new Key(state, key.goal);
+			Segment segment = segments[stateKey.hashCode() & (SEGMENTS - 1)];
+			synchronized (segment) {
+				segment.putIfAbsent(stateKey, new CachedPath(solution, i + 1));
+			}
+		}
+	}
+
+	// An inner method that adds an entry to its segment
+	private void put(Key key, CachedPath entry) {
+		Segment segment = segments[key.hashCode() & (SEGMENTS - 1)];
+		synchronized (segment) {
+			segment.put(key, entry);
+		}
+	}
+
+	// A cached solution: a whole solution (null if the board cannot be solved) and the index of the first move
+	// from the cached state
+	private static final class CachedPath {
+		private final Solution solution;
+		private final int start;
+
+		private CachedPath(Solution solution, int start) {
+			this.solution = solution;
+			this.start = start;
+		}
+	}
+
+	// The key of a solution: the packed initial state and the packed goal
+	private static final class Key {
+		private final long state;
+		private final long goal;
+
+		private Key(long state, long goal) {
+			this.state = state;
+			this.goal = goal;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return state == other.state && goal == other.goal;
+		}
+
+		@Override
+		public int hashCode() {
+			return PackedState.hash(state ^ Long.rotateLeft(goal, 29));
+		}
+	}
+
+	// A part of the cache that keeps its entries in the order of their last use and removes the least recently
+	// used one when it is full
+	private final class Segment extends LinkedHashMap<Key, CachedPath> {
+		private static final long serialVersionUID = 1L;
+		private final int capacity;
+
+		private Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CachedPath> eldest) {
+			if (size() <= capacity)
+				return false;
+			evictions.increment();
+			return true;
+		}
+	}
+}
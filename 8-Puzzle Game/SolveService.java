@@ -0,0 +1,131 @@
+import java.util.concurrent.CancellationException; // thrown by the solvers when they give up
+import java.util.concurrent.CompletableFuture; // used for the pattern databases that are being built
+import java.util.concurrent.ExecutionException; // thrown by solve when a request fails
+import java.util.concurrent.ExecutorService; // used for running the requests
+import java.util.concurrent.Executors; // used for creating a virtual thread for each request
+import java.util.concurrent.Future; // used for the pending solutions
+import java.util.concurrent.TimeUnit; // used for converting the time limits
+import java.util.concurrent.TimeoutException; // thrown when a request runs past its deadline
+import java.util.concurrent.atomic.LongAdder; // used for counting the requests
+
+// A solve service that can be embedded in an application. Every request runs on its own virtual thread with its
+// own Alg object, so many requests can wait or search at the same time without holding a platform thread each.
+// Every request has a deadline (the time limit counts from the call to submit), which the solvers check while
+// they expand states, so a hard board gives up with a TimeoutException instead of running until the memory is
+// full. Cancelling the future of a request interrupts its thread, and the solver stops at its next check, so the
+// work of a request that is no longer wanted is reclaimed. The pattern databases are taken from the cache that
+// every solver shares (see PatternDatabaseHeuristic.databaseAsync).
+//
+// Virtual threads need Java 21 or newer, so this class makes the game require Java 21.
+public class SolveService implements AutoCloseable {
+	private final int solver; // the solver used for every request, one of the Alg.SOLVER_ constants
+	private final int n; // the heuristic id, as in the Alg class
+	private final long timeoutMillis; // the time limit of the requests that do not give their own
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	// The number of requests that were solved (or found unsolvable), timed out and cancelled while searching
+	private final LongAdder solved = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+	private final LongAdder cancelled = new LongAdder();
+
+	// A constructor for a service with the given solver, heuristic and default time limit in milliseconds
+	public SolveService(int solver, int n, long timeoutMillis) {
+		if (timeoutMillis <= 0)
+			throw new IllegalArgumentException("The time limit must be positive, not " + timeoutMillis);
+		this.solver = solver;
+		this.n = n;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	// A method that starts solving a board with the default time limit and returns its pending solution
+	public Future<Solution> submit(Board initial, Board goal) {
+		return submit(initial, goal, timeoutMillis);
+	}
+
+	// A method that starts solving a board with the given time limit in milliseconds and returns its pending
+	// solution. The future holds null for a board that cannot be solved, it fails with a TimeoutException when
+	// the deadline passes, and cancelling it stops the search.
+	public Future<Solution> submit(Board initial, Board goal, long timeoutMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		return executor.submit(() -> solveBefore(initial, goal, deadline, timeoutMillis));
+	}
+
+	// A method that solves a board with the default time limit and waits for it, the search is cancelled if the
+	// waiting thread is interrupted
+	public Solution solve(Board initial, Board goal) throws TimeoutException, InterruptedException {
+		Future<Solution> pending = submit(initial, goal);
+		try {
+			return pending.get();
+		} catch (InterruptedException e) {
+			pending.cancel(true);
+			throw e;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof TimeoutException)
+				throw (TimeoutException) e.getCause();
+			throw new IllegalStateException("The board could not be solved", e.getCause());
+		}
+	}
+
+	// Getters for the number of requests that were solved, that timed out and that were cancelled while searching
+	public long getSolved() {
+		return solved.sum();
+	}
+
+	public long getTimedOut() {
+		return timedOut.sum();
+	}
+
+	public long getCancelled() {
+		return cancelled.sum();
+	}
+
+	// A method that cancels the pending requests and stops accepting new ones
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	// An inner method that runs one request on its virtual thread
+	private Solution solveBefore(Board initial, Board goal, long deadline, long timeoutMillis)
+			throws TimeoutException {
+		// A board that cannot reach the usual goal is answered without searching
+		if (goal.equals(new Board(Board.getGoalState(goal.getSize()))) && !Alg.isSolvable(initial.getCurrentState())) {
+			solved.increment();
+			return null;
+		}
+		Alg alg = new Alg();
+		alg.setDeadline(deadline);
+		try {
+			if (n == Alg.HEURISTIC_PATTERN_DATABASE)
+				alg.setPatternDatabase(patternDatabase(goal, deadline));
+			Solution solution = alg.solveWith(solver, initial, goal, n);
+			solved.increment();
+			return solution;
+		} catch (CancellationException e) {
+			if (Thread.currentThread().isInterrupted()) {
+				cancelled.increment();
+				throw e;
+			}
+			timedOut.increment();
+			throw new TimeoutException("No solution was found within " + timeoutMillis + " ms");
+		}
+	}
+
+	// An inner method that returns the shared pattern databases of a goal. When they are not in the cache, the
+	// request starts building them on another virtual thread, and every request only waits for them until its own
+	// deadline (a request that gives up leaves the build running for the others). It throws a
+	// CancellationException when the deadline passes or the thread is interrupted.
+	private AdditivePatternDatabase patternDatabase(Board goal, long deadline) {
+		CompletableFuture<AdditivePatternDatabase> pending = PatternDatabaseHeuristic.databaseAsync(goal.getSize(),
+				Alg.cellsOfTiles(goal.getCurrentState()), executor);
+		try {
+			return pending.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("The request was cancelled while its pattern databases were built");
+		} catch (TimeoutException e) {
+			throw new CancellationException("The pattern databases were not built before the deadline");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("The pattern databases could not be built", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays; // used for clearing the key array
+
+// A hash table that maps packed states (see the PackedState class) to int values. It is used as the
+// closed set of the solver, so it avoids boxing and per-entry objects: the keys and the values are kept in
+// two parallel primitive arrays and collisions are resolved with linear probing (open addressing).
+// Each slot takes 12 bytes, so a table with millions of entries has a predictable memory footprint.
+public class StateTable {
+	// A key that marks an empty slot (it is never a valid packed state)
+	private static final long EMPTY = PackedState.NONE;
+	// The table is doubled when it becomes fuller than this
+	private static final double MAX_LOAD_FACTOR = 0.7;
+
+	private long[] keys; // the packed states in the table (EMPTY for unused slots)
+	private int[] values; // the value stored for each key
+	private int mask; // capacity - 1, used instead of the modulo as the capacity is a power of two
+	private int size; // the number of entries in the table
+	private int resizeThreshold; // the size at which the table grows
+
+	// Probe statistics: the number of lookups/insertions and the number of slots they visited
+	private long operations;
+	private long probes;
+	private int maxProbes;
+
+	// A constructor that creates a table with room for the given number of entries before it grows
+	public StateTable(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD_FACTOR)) - 1) << 1;
+		allocate(capacity);
+	}
+
+	// A constructor that creates a small table that grows when needed
+	public StateTable() {
+		this(16);
+	}
+
+	// A method that adds a state to the table, returns false if it was already in the table
+	public boolean add(long state) {
+		int sizeBefore = size;
+		putIfAbsent(state, 0);
+		return size != sizeBefore;
+	}
+
+	// A method that checks if a state is in the table
+	public boolean contains(long state) {
+		return keys[find(state)] != EMPTY;
+	}
+
+	// A method that stores a value for a state, replacing the previous one
+	public void put(long state, int value) {
+		int slot = find(state);
+		if (keys[slot] == EMPTY) {
+			insert(slot, state, value);
+		} else {
+			values[slot] = value;
+		}
+	}
+
+	// A method that stores a value for a state only if the state is not in the table yet
+	public void putIfAbsent(long state, int value) {
+		int slot = find(state);
+		if (keys[slot] == EMPTY) {
+			insert(slot, state, value);
+		}
+	}
+
+	// A method that returns the value stored for a state, or defaultValue if the state is not in the table
+	public int get(long state, int defaultValue) {
+		int slot = find(state);
+		return keys[slot] == EMPTY ? defaultValue : values[slot];
+	}
+
+	// A method that removes a state from the table, returns false if it was not in the table
+	public boolean remove(long state) {
+		int gap = find(state);
+		if (keys[gap] == EMPTY)
+			return false;
+		// shift the following entries of the probe sequence back so that no lookup stops early at the gap
+		int next = (gap + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = PackedState.hash(keys[next]) & mask;
+			// the entry can fill the gap if its home slot is not between the gap and its current slot
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = EMPTY;
+		size--;
+		return true;
+	}
+
+	// A method that removes all entries but keeps the allocated arrays
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		operations = 0;
+		probes = 0;
+		maxProbes = 0;
+	}
+
+	// A getter for the number of entries
+	public int size() {
+		return size;
+	}
+
+	// A getter for the number of slots
+	public int capacity() {
+		return keys.length;
+	}
+
+	// A method that returns the ratio of used slots
+	public double loadFactor() {
+		return (double) size / keys.length;
+	}
+
+	// A method that returns the average number of slots visited by a lookup or an insertion
+	public double averageProbes() {
+		return operations == 0 ? 0 : (double) probes / operations;
+	}
+
+	// A getter for the longest probe sequence seen so far
+	public int maxProbes() {
+		return maxProbes;
+	}
+
+	// A method that summarizes the size and the probe statistics of the table
+	@Override
+	public String toString() {
+		return String.format("StateTable[size=%d, capacity=%d, load=%.2f, avgProbes=%.2f, maxProbes=%d]",
+				size, keys.length, loadFactor(), averageProbes(), maxProbes);
+	}
+
+	// An inner method that returns the slot of a state, or the empty slot where it would be inserted
+	private int find(long state) {
+		int slot = PackedState.hash(state) & mask;
+		int count = 1;
+		// walk forward until the state or an empty slot is found
+		while (keys[slot] != EMPTY && keys[slot] != state) {
+			slot = (slot + 1) & mask;
+			count++;
+		}
+		operations++;
+		probes += count;
+		if (count > maxProbes)
+			maxProbes = count;
+		return slot;
+	}
+
+	// An inner method that fills an empty slot and grows the table if it gets too full
+	private void insert(int slot, long state, int value) {
+		keys[slot] = state;
+		values[slot] = value;
+		if (++size > resizeThreshold)
+			resize(keys.length << 1);
+	}
+
+	// An inner method that allocates empty arrays with the given capacity
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		resizeThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+	}
+
+	// An inner method that moves all entries into a larger table
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				// the entries are unique, so the first empty slot can be taken without comparing keys
+				int slot = PackedState.hash(oldKeys[i]) & mask;
+				while (keys[slot] != EMPTY)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
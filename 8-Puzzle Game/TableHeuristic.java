@@ -0,0 +1,36 @@
+// The heuristics that add up a value for each tile on its cell: the misplaced tiles and the manhattan distance,
+// optionally with the linear conflicts (the heuristic ids 0, 1 and 3 of the Alg class). The value of every tile on
+// every cell comes from PackedState.heuristicTable, so a move is updated in constant time, and the linear
+// conflicts only evaluate the two lines that the moved tile left and entered.
+public class TableHeuristic implements Heuristic {
+	private final PackedState layout; // the layout of the packed states
+	private final long goalState; // the packed goal
+	private final int[] goalPositions; // the goal cell of every tile number
+	private final int[] table; // the value of each tile on each cell
+	private final int n; // the heuristic id, as in the Alg class
+
+	// A constructor for the heuristic with the given id (0 misplaced tiles, 1 manhattan distance, 3 manhattan
+	// distance with linear conflicts)
+	public TableHeuristic(PackedState layout, long goalState, int n) {
+		if (n != 0 && n != 1 && n != Alg.HEURISTIC_LINEAR_CONFLICT)
+			throw new IllegalArgumentException("Not a table heuristic: " + n);
+		this.layout = layout;
+		this.goalState = goalState;
+		this.goalPositions = layout.goalPositions(goalState);
+		this.table = layout.heuristicTable(goalState, n);
+		this.n = n;
+	}
+
+	@Override
+	public int estimate(long state) {
+		return layout.heuristic(state, goalState, goalPositions, n);
+	}
+
+	@Override
+	public int update(long state, long next, int estimate) {
+		int nextEstimate = layout.updateHeuristic(table, state, next, estimate);
+		if (n == Alg.HEURISTIC_LINEAR_CONFLICT)
+			nextEstimate += LinearConflict.delta(layout, state, next, goalPositions);
+		return nextEstimate;
+	}
+}
@@ -0,0 +1,463 @@
+import java.io.IOException; // thrown when the table file cannot be read or written
+import java.nio.ByteBuffer; // used for the file header and the entries
+import java.nio.ByteOrder; // used for writing the entries in the order of the longs that hold them
+import java.nio.channels.FileChannel; // used for reading and writing the table file
+import java.nio.file.Path; // used for the location of the table file
+import java.nio.file.StandardOpenOption; // used for opening the table file
+import java.util.Arrays; // used for comparing the goal of a heuristic with the goal of the table
+import java.util.ArrayList; // used for the tasks and the histogram
+import java.util.List; // used for the tasks and the histogram
+import java.util.concurrent.Callable; // used for the tasks that scan the table
+import java.util.concurrent.ExecutionException; // thrown when a task fails
+import java.util.concurrent.ExecutorService; // used for the threads that scan the table
+import java.util.concurrent.Executors; // used for creating those threads
+import java.util.concurrent.Future; // used for collecting the counts of the tasks
+import java.util.concurrent.atomic.AtomicInteger; // used for handing out the chunks of the table
+import java.util.concurrent.atomic.AtomicLongArray; // used for the entries, which several threads update
+
+// A breadth-first search over every solvable state of a rows x cols sliding puzzle (the 8 puzzle, 2 x 5, 3 x 4,
+// up to 12 cells) that stores only 2 bits per state, so 4 states fit in a byte (the 3 x 4 board takes 60 MB).
+// A state is indexed like in the DistanceTable class: the rank of the positions of its tiles divided by 2, and
+// its entry holds its distance from the goal modulo 3, or 3 if it has not been reached yet. Every move changes the
+// distance by exactly one, so the neighbor whose entry is (entry - 1) mod 3 is a step towards the goal, and the
+// finished table is a perfect lookup table that solves any board optimally without search.
+//
+// There is no queue: each layer is made by a scan over the whole table, which is split into chunks for several
+// threads. The layer d + 1 is made in one of two ways, whichever has fewer states to look at:
+// - forward: the states with entry d mod 3 are expanded and their unreached neighbors get entry (d + 1) mod 3.
+//   This also expands the states at distance d - 3, d - 6, ... again, which is cheap while the layers are small.
+// - backward: every unreached state that has a neighbor with entry d mod 3 gets entry (d + 1) mod 3. The
+//   neighbors of an unreached state are at distance d or more, so such a neighbor is exactly at distance d.
+//   This is faster once most of the states have been reached.
+// The counts of the layers give the histogram and the diameter of the puzzle. A finished table can be saved and
+// loaded again, and on the 3 x 3 board its heuristic method gives the exact distance as a Heuristic,
+// with which A* only expands the states of an optimal solution.
+public class TwoBitBFS {
+	// The largest number of cells, 12!/2 states still have an int index
+	public static final int MAX_CELLS = 12;
+	// The entry of a state that has not been reached
+	private static final int UNREACHED = 3;
+	// The number of entries in a long and the mask of the low bit of every entry
+	private static final int ENTRIES_PER_WORD = 32;
+	private static final long LOW_BITS = 0x5555555555555555L;
+	// The number of longs in a chunk of the table that a thread scans at once
+	private static final int CHUNK_WORDS = 1024;
+	// The file header: a magic number, the rows, the columns and the diameter, followed by the histogram and the
+	// longs that hold the entries
+	private static final int MAGIC = 0x32424653; // "2BFS"
+	private static final int HEADER_BYTES = 16;
+	// The row and column changes of the moves of the empty cell, in the order of the PackedState moves
+	private static final int[] ROW_STEPS = { -1, 1, 0, 0 };
+	private static final int[] COL_STEPS = { 0, 0, -1, 1 };
+
+	private final int rows, cols, cells;
+	private final int states; // the number of solvable states, cells!/2
+	private final AtomicLongArray entries; // the 2 bit entries, 32 per long
+	private final int goalParity; // the parity that every solvable state shares with the goal (see parity)
+	private final int goalIndex;
+	private final List<Long> histogram = new ArrayList<>(); // the number of states at each distance
+	private long expandedStates; // the number of states whose neighbors were generated during the search
+
+	// A constructor for an empty table of a rows x cols board whose goal has the tiles in order and the empty
+	// cell in the bottom right corner
+	public TwoBitBFS(int rows, int cols) {
+		if (rows < 1 || cols < 1 || rows * cols < 3 || rows * cols > MAX_CELLS)
+			throw new IllegalArgumentException("The board must have between 3 and " + MAX_CELLS + " cells");
+		this.rows = rows;
+		this.cols = cols;
+		this.cells = rows * cols;
+		this.states = (int) (Permutations.count(cells, cells) / 2);
+		this.entries = new AtomicLongArray((states + ENTRIES_PER_WORD - 1) / ENTRIES_PER_WORD);
+		int[] positions = new int[cells];
+		for (int tile = 1; tile < cells; tile++)
+			positions[tile] = tile - 1;
+		positions[0] = cells - 1;
+		this.goalParity = parity(positions);
+		this.goalIndex = (int) (Permutations.rank(positions) >>> 1);
+	}
+
+	// A method that runs the search with the given number of threads and returns the number of states at each
+	// distance from the goal (the diameter is the length minus 1)
+	public long[] build(int threads) {
+		for (int word = 0; word < entries.length(); word++)
+			entries.set(word, -1L); // every entry is UNREACHED
+		setEntry(goalIndex, 0);
+		histogram.clear();
+		histogram.add(1L);
+		expandedStates = 0;
+		long unreached = states - 1;
+		long[] codeCounts = { 1, 0, 0 }; // the number of reached states with each entry
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (int depth = 0; histogram.get(depth) > 0; depth++) {
+				int code = depth % 3;
+				boolean forward = codeCounts[code] <= unreached;
+				long count = scan(pool, threads, code, forward);
+				expandedStates += forward ? codeCounts[code] : unreached;
+				codeCounts[(code + 1) % 3] += count;
+				unreached -= count;
+				histogram.add(count);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		histogram.remove(histogram.size() - 1); // the last layer is empty
+		return getHistogram();
+	}
+
+	// An inner method that makes the next layer from the states with the given entry and returns its size
+	private long scan(ExecutorService pool, int threads, int code, boolean forward) {
+		AtomicInteger nextChunk = new AtomicInteger();
+		int chunks = (entries.length() + CHUNK_WORDS - 1) / CHUNK_WORDS;
+		List<Future<Long>> counts = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			Callable<Long> task = () -> {
+				int[] positions = new int[cells];
+				int[] board = new int[cells];
+				long count = 0;
+				// Take chunks till the whole table is scanned, so threads that finish early help the others
+				for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+					int end = Math.min(entries.length(), (chunk + 1) * CHUNK_WORDS);
+					for (int word = chunk * CHUNK_WORDS; word < end; word++)
+						count += forward ? expandWord(word, code, positions, board)
+								: reachWord(word, code, positions, board);
+				}
+				return count;
+			};
+			counts.add(pool.submit(task));
+		}
+		long total = 0;
+		try {
+			for (Future<Long> count : counts)
+				total += count.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while scanning the table", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A scan of the table failed", e.getCause());
+		}
+		return total;
+	}
+
+	// An inner method that expands the states of a long whose entry is code and gives their unreached neighbors
+	// the next entry, returns the number of neighbors reached
+	private long expandWord(int word, int code, int[] positions, int[] board) {
+		long matches = matching(entries.get(word), code);
+		long count = 0;
+		int next = (code + 1) % 3;
+		while (matches != 0) {
+			int index = word * ENTRIES_PER_WORD + (Long.numberOfTrailingZeros(matches) >>> 1);
+			matches &= matches - 1;
+			if (index >= states)
+				break;
+			loadState(index, positions, board);
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				int neighbor = neighbor(positions, board, move);
+				if (neighbor >= 0 && reach(neighbor, next))
+					count++;
+			}
+		}
+		return count;
+	}
+
+	// An inner method that gives the next entry to the unreached states of a long that have a neighbor whose entry
+	// is code, returns the number of states reached. Only the thread that scans a long changes it in this mode.
+	private long reachWord(int word, int code, int[] positions, int[] board) {
+		long value = entries.get(word);
+		long matches = matching(value, UNREACHED);
+		long count = 0;
+		int next = (code + 1) % 3;
+		while (matches != 0) {
+			int shift = Long.numberOfTrailingZeros(matches);
+			matches &= matches - 1;
+			int index = word * ENTRIES_PER_WORD + (shift >>> 1);
+			if (index >= states)
+				break;
+			loadState(index, positions, board);
+			for (int move = PackedState.UP; move <= PackedState.RIGHT; move++) {
+				int neighbor = neighbor(positions, board, move);
+				if (neighbor >= 0 && entry(neighbor) == code) {
+					value ^= (long) (UNREACHED ^ next) << shift;
+					count++;
+					break;
+				}
+			}
+		}
+		if (count > 0)
+			entries.set(word, value);
+		return count;
+	}
+
+	// An inner method that gives an unreached state the entry, returns false if it was already reached
+	private boolean reach(int index, int code) {
+		int word = index / ENTRIES_PER_WORD, shift = (index % ENTRIES_PER_WORD) << 1;
+		while (true) {
+			long value = entries.get(word);
+			if ((value >>> shift & 3) != UNREACHED)
+				return false;
+			if (entries.compareAndSet(word, value, value ^ (long) (UNREACHED ^ code) << shift))
+				return true;
+		}
+	}
+
+	// An inner method that returns a mask with the low bit of every entry of a long that equals the code
+	private static long matching(long value, int code) {
+		long difference = value ^ (LOW_BITS * code); // the entries that match become 0
+		return ~(difference | difference >>> 1) & LOW_BITS;
+	}
+
+	// An inner method that fills the positions of the tiles and the board (the tile in every cell) of the state
+	// with the given index
+	private void loadState(int index, int[] positions, int[] board) {
+		Permutations.unrank((long) index << 1, positions);
+		// The ranks 2 * index and 2 * index + 1 only differ by the swapped positions of the last two tiles, the
+		// one that can reach the goal is taken
+		if (parity(positions) != goalParity) {
+			int last = positions[cells - 1];
+			positions[cells - 1] = positions[cells - 2];
+			positions[cells - 2] = last;
+		}
+		for (int tile = 0; tile < cells; tile++)
+			board[positions[tile]] = tile;
+	}
+
+	// An inner method that returns the index of the state after moving the empty cell, or -1 if the move leaves
+	// the board. The arrays are the same after the call.
+	private int neighbor(int[] positions, int[] board, int move) {
+		int empty = positions[0];
+		int row = empty / cols + ROW_STEPS[move], col = empty % cols + COL_STEPS[move];
+		if (row < 0 || row >= rows || col < 0 || col >= cols)
+			return -1;
+		int cell = row * cols + col;
+		int tile = board[cell];
+		positions[0] = cell;
+		positions[tile] = empty;
+		int index = (int) (Permutations.rank(positions) >>> 1);
+		positions[0] = empty;
+		positions[tile] = cell;
+		return index;
+	}
+
+	// An inner method that returns the parity of the positions of the tiles plus the row and column of the empty
+	// cell. Every move swaps the empty cell with a neighbor and changes its row or column by one, so the value
+	// never changes and exactly one of two states that only differ by a swap of two tiles can reach the goal.
+	private int parity(int[] positions) {
+		int parity = positions[0] / cols + positions[0] % cols;
+		int seen = 0; // a bit for each tile already counted in a cycle
+		for (int start = 0; start < cells; start++) {
+			// a cycle of length k is made of k - 1 swaps
+			for (int tile = positions[start]; (seen & 1 << tile) == 0; tile = positions[tile]) {
+				seen |= 1 << tile;
+				if (tile != start)
+					parity++;
+			}
+		}
+		return parity & 1;
+	}
+
+	// A method that returns the number of moves that solve a board (the tile in every cell, 0 is the empty cell),
+	// or -1 if it is not solvable. It follows the neighbors that are one move closer to the goal.
+	public int distance(int[] board) {
+		if (board.length != cells)
+			throw new IllegalArgumentException("The board must have " + cells + " cells");
+		int[] positions = new int[cells];
+		int[] current = board.clone();
+		for (int cell = 0; cell < cells; cell++)
+			positions[current[cell]] = cell;
+		if (parity(positions) != goalParity)
+			return -1;
+		int index = (int) (Permutations.rank(positions) >>> 1);
+		int moves = 0;
+		while (index != goalIndex) {
+			int closer = (entry(index) + 2) % 3;
+			int next = -1;
+			for (int move = PackedState.UP; move <= PackedState.RIGHT && next < 0; move++) {
+				int neighbor = neighbor(positions, current, move);
+				if (neighbor >= 0 && entry(neighbor) == closer)
+					next = move;
+			}
+			if (next < 0)
+				throw new IllegalStateException("The table is not finished");
+			// Make the move on the arrays
+			int empty = positions[0];
+			int cell = (empty / cols + ROW_STEPS[next]) * cols + empty % cols + COL_STEPS[next];
+			int tile = current[cell];
+			current[empty] = tile;
+			current[cell] = 0;
+			positions[tile] = empty;
+			positions[0] = cell;
+			index = (int) (Permutations.rank(positions) >>> 1);
+			moves++;
+		}
+		return moves;
+	}
+
+	// A method that writes the finished table to a file: the header, the histogram and the longs that hold the
+	// entries
+	public void save(Path file) throws IOException {
+		if (histogram.isEmpty())
+			throw new IllegalStateException("The table is not finished");
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + histogram.size() * Long.BYTES);
+		header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(histogram.size() - 1);
+		for (long count : histogram)
+			header.putLong(count);
+		header.flip();
+		ByteBuffer block = ByteBuffer.allocate(CHUNK_WORDS * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (header.hasRemaining())
+				channel.write(header);
+			for (int word = 0; word < entries.length(); word++) {
+				block.putLong(entries.get(word));
+				if (!block.hasRemaining() || word == entries.length() - 1) {
+					block.flip();
+					while (block.hasRemaining())
+						channel.write(block);
+					block.clear();
+				}
+			}
+		}
+	}
+
+	// A method that loads a table saved by the save method
+	public static TwoBitBFS load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = readFully(channel, HEADER_BYTES, file);
+			if (header.getInt(0) != MAGIC)
+				throw new IOException("Not a two-bit table: " + file);
+			int rows = header.getInt(4), cols = header.getInt(8), diameter = header.getInt(12);
+			if (rows < 1 || cols < 1 || rows * cols < 3 || rows * cols > MAX_CELLS || diameter < 0)
+				throw new IOException("Not a two-bit table: " + file);
+			TwoBitBFS table = new TwoBitBFS(rows, cols);
+			long words = table.entries.length();
+			if (channel.size() != HEADER_BYTES + (diameter + 1L) * Long.BYTES + words * Long.BYTES)
+				throw new IOException("Not a two-bit table: " + file);
+			ByteBuffer counts = readFully(channel, (diameter + 1) * Long.BYTES, file);
+			for (int depth = 0; depth <= diameter; depth++)
+				table.histogram.add(counts.getLong(depth * Long.BYTES));
+			for (int word = 0; word < words; word += CHUNK_WORDS) {
+				int length = (int) Math.min(CHUNK_WORDS, words - word);
+				ByteBuffer block = readFully(channel, length * Long.BYTES, file).order(ByteOrder.LITTLE_ENDIAN);
+				for (int i = 0; i < length; i++)
+					table.entries.set(word + i, block.getLong(i * Long.BYTES));
+			}
+			return table;
+		}
+	}
+
+	// An inner method that reads the next bytes of a file
+	private static ByteBuffer readFully(FileChannel channel, int length, Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+			if (channel.read(buffer) < 0)
+				throw new IOException("The two-bit table ends too early: " + file);
+		return buffer.flip();
+	}
+
+	// A method that returns the factory of a heuristic that gives the exact number of moves from the finished
+	// table. It only supports a square board with the goal of the table, the tiles in order and the empty cell last.
+	public Heuristic.Factory heuristic() {
+		if (histogram.isEmpty())
+			throw new IllegalStateException("The table is not finished");
+		return (layout, goalState) -> {
+			if (rows != cols || layout.getWidth() != cols
+					|| !Arrays.equals(layout.decode(goalState), Board.getGoalState(cols)))
+				throw new IllegalArgumentException("The table only has the distances to the goal of its "
+						+ rows + " x " + cols + " board");
+			return new ExactHeuristic(layout);
+		};
+	}
+
+	// The heuristic of the heuristic method. The distance of a state is found by following the entries to the
+	// goal, and the distance of a neighbor is one less when its entry is one less (mod 3) and one more otherwise,
+	// so the A* search updates it in constant time.
+	private final class ExactHeuristic implements Heuristic {
+		private final PackedState layout;
+		private final int[] positions = new int[cells]; // the cell of every tile of the state whose index is found
+
+		private ExactHeuristic(PackedState layout) {
+			this.layout = layout;
+		}
+
+		@Override
+		public int estimate(long state) {
+			// A state that can not reach the goal gets 0, like a search that has no heuristic
+			return Math.max(0, distance(layout.decode(state)));
+		}
+
+		@Override
+		public int update(long state, long next, int estimate) {
+			int index = indexOf(state), nextIndex = indexOf(next);
+			if (index < 0 || nextIndex < 0)
+				return estimate(next); // the states can not reach the goal
+			int code = entry(index), nextCode = entry(nextIndex);
+			return nextCode == (code + 2) % 3 ? estimate - 1 : estimate + 1;
+		}
+
+		// An inner method that returns the index of a packed state, or -1 if the state can not reach the goal
+		private int indexOf(long state) {
+			layout.positions(state, positions);
+			if (parity(positions) != goalParity)
+				return -1;
+			return (int) (Permutations.rank(positions) >>> 1);
+		}
+	}
+
+	// A getter for the number of states at each distance
+	public long[] getHistogram() {
+		long[] counts = new long[histogram.size()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = histogram.get(i);
+		return counts;
+	}
+
+	// A getter for the largest distance from the goal
+	public int getDiameter() {
+		return histogram.size() - 1;
+	}
+
+	// A getter for the number of solvable states
+	public int getStates() {
+		return states;
+	}
+
+	// A getter for the number of states that the scans of the last search looked at
+	public long getExpandedStates() {
+		return expandedStates;
+	}
+
+	// An inner method that reads the entry at an index
+	private int entry(int index) {
+		return (int) (entries.get(index / ENTRIES_PER_WORD) >>> ((index % ENTRIES_PER_WORD) << 1)) & 3;
+	}
+
+	// An inner method that writes the entry at an index while no other thread changes the table
+	private void setEntry(int index, int code) {
+		int word = index / ENTRIES_PER_WORD, shift = (index % ENTRIES_PER_WORD) << 1;
+		entries.set(word, entries.get(word) & ~(3L << shift) | (long) code << shift);
+	}
+
+	// Runs the search as a stress benchmark and prints the histogram, the diameter and the time:
+	// java TwoBitBFS <rows> <cols> [threads] [table file]
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java TwoBitBFS <rows> <cols> [threads] [table file]");
+			return;
+		}
+		int rows = Integer.parseInt(args[0]);
+		int cols = Integer.parseInt(args[1]);
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		TwoBitBFS search = new TwoBitBFS(rows, cols);
+		System.out.println(rows + " x " + cols + ": " + search.getStates() + " states, "
+				+ (search.entries.length() * (long) Long.BYTES >> 10) + " KB, " + threads + " threads");
+		long start = System.nanoTime();
+		long[] histogram = search.build(threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		for (int depth = 0; depth < histogram.length; depth++)
+			System.out.println(depth + " " + histogram[depth]);
+		System.out.printf("diameter %d, %.2f s, %.0f states/s%n", search.getDiameter(), seconds,
+				search.getExpandedStates() / seconds);
+		if (args.length > 3)
+			search.save(Path.of(args[3]));
+	}
+}
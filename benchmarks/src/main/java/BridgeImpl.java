@@ -0,0 +1,70 @@
+import bench.Bridge; // the interface that the benchmarks call
+
+// The implementation of the Bridge interface, it forwards every call to the game classes
+public class BridgeImpl implements Bridge {
+	private final Alg solver = new Alg(); // every benchmark thread loads its own bridge, so the solver is not shared
+	private DistanceTable distances; // the distances of all 8 puzzle boards, built when they are first needed
+
+	@Override
+	public long rank(int[] permutation) {
+		return Permutations.rank(permutation);
+	}
+
+	@Override
+	public void unrank(long rank, int[] permutation) {
+		Permutations.unrank(rank, permutation);
+	}
+
+	@Override
+	public long rankPartial(int[] values, int k, int n) {
+		return Permutations.rankPartial(values, k, n);
+	}
+
+	@Override
+	public void unrankPartial(long rank, int[] values, int k, int n) {
+		Permutations.unrankPartial(rank, values, k, n);
+	}
+
+	@Override
+	public Object board(int[] cells) {
+		return new Board(cells.clone());
+	}
+
+	@Override
+	public int neighborCount(Object board) {
+		return ((Board) board).getNeighbors().size();
+	}
+
+	@Override
+	public int heuristic(Object board, Object goal, int n) {
+		return ((Board) board).calculateHeuristic((Board) goal, n);
+	}
+
+	@Override
+	public boolean isSolvable(int[] cells) {
+		return Alg.isSolvable(cells);
+	}
+
+	@Override
+	public boolean boardsEqual(Object board, Object other) {
+		return board.equals(other);
+	}
+
+	@Override
+	public int boardHash(Object board) {
+		return board.hashCode();
+	}
+
+	@Override
+	public int solve(Object initial, Object goal, String heuristic) {
+		Solution solution = solver.solve((Board) initial, (Board) goal, Heuristics.get(heuristic));
+		return solution == null ? -1 : solution.getLength();
+	}
+
+	@Override
+	public int distance(int[] cells) {
+		if (distances == null)
+			distances = DistanceTable.build(new Board(BenchmarkSet.EIGHT_PUZZLE_GOAL.clone()));
+		return distances.distance(new Board(cells.clone()));
+	}
+}
@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// The main class of the benchmark jar. It takes the usual JMH arguments and always adds the GC profiler, so
+// every result comes with the allocation rate (gc.alloc.rate.norm is the number of bytes allocated per
+// operation), which shows allocation regressions even when the time does not change.
+public class BenchmarkMain {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+				|| options.shouldListProfilers() || options.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		boolean gcProfiler = options.getProfilers().stream()
+				.anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(options);
+		if (!gcProfiler)
+			builder.addProfiler(GCProfiler.class);
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,119 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures how many boards per second the Board and Alg classes handle in the operations that are not a whole
+// search: generating the neighbors, calculating each heuristic from scratch, checking the solvability, and
+// comparing and hashing boards (equal copies, so equals compares every tile).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	// the number of boards, each benchmark call goes through all of them
+	private static final int BATCH = 1024;
+
+	@Param({ "3", "4" })
+	public int width;
+
+	private Bridge game;
+	private int[][] cells;
+	private Object[] boards;
+	private Object[] copies; // equal boards that are different objects
+	private Object goal;
+
+	@Setup
+	public void setup() {
+		game = Bridge.load();
+		cells = Corpus.randomBoards(42 + width, width, BATCH);
+		boards = new Object[BATCH];
+		copies = new Object[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			boards[i] = game.board(cells[i]);
+			copies[i] = game.board(cells[i]);
+		}
+		int[] goalCells = new int[width * width];
+		for (int cell = 0; cell < goalCells.length - 1; cell++)
+			goalCells[cell] = cell + 1;
+		goal = game.board(goalCells);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int neighbors() {
+		int sum = 0;
+		for (Object board : boards)
+			sum += game.neighborCount(board);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int misplacedTiles() {
+		return heuristics(0);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int manhattanDistance() {
+		return heuristics(1);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int linearConflicts() {
+		return heuristics(3);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int isSolvable() {
+		int sum = 0;
+		for (int[] board : cells)
+			if (game.isSolvable(board))
+				sum++;
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int equalBoards() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++)
+			if (game.boardsEqual(boards[i], copies[i]))
+				sum++;
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int hashBoards() {
+		int sum = 0;
+		for (Object board : boards)
+			sum += game.boardHash(board);
+		return sum;
+	}
+
+	// An inner method that calculates a heuristic of every board
+	private int heuristics(int n) {
+		int sum = 0;
+		for (Object board : boards)
+			sum += game.heuristic(board, goal, n);
+		return sum;
+	}
+}
@@ -0,0 +1,53 @@
+package bench;
+
+// The game classes live in the default package, which cannot be imported from a named package (and JMH
+// does not accept benchmarks in the default package). The benchmarks therefore call the game through this
+// interface, which is implemented by the BridgeImpl class in the default package. The implementation is
+// loaded once by name, after that the calls are plain interface calls that the JIT compiler inlines.
+public interface Bridge {
+	// Permutations.rank
+	long rank(int[] permutation);
+
+	// Permutations.unrank
+	void unrank(long rank, int[] permutation);
+
+	// Permutations.rankPartial
+	long rankPartial(int[] values, int k, int n);
+
+	// Permutations.unrankPartial
+	void unrankPartial(long rank, int[] values, int k, int n);
+
+	// new Board(cells), the boards are passed as Object because the Board class cannot be named here
+	Object board(int[] cells);
+
+	// Board.getNeighbors, returns the number of neighbors
+	int neighborCount(Object board);
+
+	// Board.calculateHeuristic
+	int heuristic(Object board, Object goal, int n);
+
+	// Alg.isSolvable
+	boolean isSolvable(int[] cells);
+
+	// Board.equals
+	boolean boardsEqual(Object board, Object other);
+
+	// Board.hashCode
+	int boardHash(Object board);
+
+	// Alg.solve with the heuristic of the Heuristics registry that has the given name, returns the number of moves
+	// (-1 if there is no solution)
+	int solve(Object initial, Object goal, String heuristic);
+
+	// DistanceTable.distance, the optimal number of moves of an 8 puzzle board (the table is built by the first call)
+	int distance(int[] cells);
+
+	// A method that loads the implementation from the default package
+	static Bridge load() {
+		try {
+			return (Bridge) Class.forName("BridgeImpl").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("BridgeImpl is missing from the default package", e);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.Random;
+
+// The boards that the benchmarks use. They are generated here from fixed seeds, independently of the game code,
+// so every run (and every version of the solver) measures the same boards.
+final class Corpus {
+	// The number of random walks that are tried for each board before giving up
+	private static final int ATTEMPTS = 100_000;
+
+	private Corpus() {
+	}
+
+	// A method that returns random permutations of the cells of a width x width board (about half of them are
+	// not solvable)
+	static int[][] randomBoards(long seed, int width, int count) {
+		Random random = new Random(seed);
+		int[][] boards = new int[count][];
+		for (int i = 0; i < count; i++) {
+			int[] cells = new int[width * width];
+			for (int cell = 0; cell < cells.length; cell++)
+				cells[cell] = cell;
+			// Fisher-Yates shuffle
+			for (int cell = cells.length - 1; cell > 0; cell--) {
+				int other = random.nextInt(cell + 1);
+				int swap = cells[cell];
+				cells[cell] = cells[other];
+				cells[other] = swap;
+			}
+			boards[i] = cells;
+		}
+		return boards;
+	}
+
+	// A method that returns 8 puzzle boards whose optimal solutions have exactly depth moves. They are the ends of
+	// random walks from the goal whose optimal distance (looked up in the distance table) is depth.
+	static int[][] eightPuzzlesAtDepth(Bridge game, long seed, int depth, int count) {
+		Random random = new Random(seed);
+		int[][] boards = new int[count][];
+		int found = 0;
+		for (int attempt = 0; attempt < ATTEMPTS && found < count; attempt++) {
+			// the walk has the parity of depth and is long enough to wander away from the goal
+			int[] cells = randomWalk(random, 3, depth + 2 * random.nextInt(depth + 1));
+			if (game.distance(cells) == depth)
+				boards[found++] = cells;
+		}
+		if (found < count)
+			throw new IllegalStateException("Only " + found + " boards at depth " + depth + " were found");
+		return boards;
+	}
+
+	// An inner method that moves the empty cell of the goal in random directions, never straight back
+	private static int[] randomWalk(Random random, int width, int steps) {
+		int[] cells = new int[width * width];
+		for (int cell = 0; cell < cells.length - 1; cell++)
+			cells[cell] = cell + 1;
+		int empty = cells.length - 1;
+		int previous = -1;
+		int[] targets = new int[4];
+		for (int step = 0; step < steps; step++) {
+			int options = 0;
+			int row = empty / width, col = empty % width;
+			if (row > 0)
+				targets[options++] = empty - width;
+			if (row < width - 1)
+				targets[options++] = empty + width;
+			if (col > 0)
+				targets[options++] = empty - 1;
+			if (col < width - 1)
+				targets[options++] = empty + 1;
+			int target;
+			do {
+				target = targets[random.nextInt(options)];
+			} while (target == previous);
+			cells[empty] = cells[target];
+			cells[target] = 0;
+			previous = empty;
+			empty = target;
+		}
+		return cells;
+	}
+}
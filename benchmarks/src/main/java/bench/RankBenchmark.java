@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures how many permutations per second the Permutations class ranks and unranks: full permutations of
+// a 3x3 board and 6 tile patterns on a 4x4 board (the partial permutations used by pattern databases).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankBenchmark {
+	// the number of inputs, each benchmark call goes through all of them
+	private static final int BATCH = 1024;
+
+	private Bridge game;
+	private int[][] permutations; // full permutations of 0..8
+	private int[][] patterns; // 6 distinct cells out of 16
+	private long[] ranks; // ranks of full permutations of 0..8
+	private long[] patternRanks; // ranks of 6 out of 16 partial permutations
+	// output arrays for unranking (the full permutation methods use the length of the array as n)
+	private final int[] scratch9 = new int[9];
+	private final int[] scratch16 = new int[16];
+
+	@Setup
+	public void setup() {
+		game = Bridge.load();
+		Random random = new Random(42);
+		permutations = new int[BATCH][9];
+		patterns = new int[BATCH][6];
+		ranks = new long[BATCH];
+		patternRanks = new long[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			ranks[i] = random.nextInt(362880);
+			game.unrank(ranks[i], permutations[i]);
+			patternRanks[i] = random.nextInt(16 * 15 * 14 * 13 * 12 * 11);
+			game.unrankPartial(patternRanks[i], patterns[i], 6, 16);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long rank3x3() {
+		long sum = 0;
+		for (int[] permutation : permutations)
+			sum += game.rank(permutation);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int unrank3x3() {
+		int sum = 0;
+		for (long rank : ranks) {
+			game.unrank(rank, scratch9);
+			sum += scratch9[0];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long rankPattern6of16() {
+		long sum = 0;
+		for (int[] pattern : patterns)
+			sum += game.rankPartial(pattern, 6, 16);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int unrankPattern6of16() {
+		int sum = 0;
+		for (long rank : patternRanks) {
+			game.unrankPartial(rank, scratch16, 6, 16);
+			sum += scratch16[0];
+		}
+		return sum;
+	}
+}
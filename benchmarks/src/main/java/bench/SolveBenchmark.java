@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures the average time of Alg.solve for each heuristic of the Heuristics registry on 8 puzzle boards whose
+// optimal solutions have 8, 16 and 24 moves (the hardest boards have 31).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+	// the number of boards at each depth, each benchmark call solves all of them
+	private static final int BOARDS = 8;
+
+	@Param({ "misplaced", "manhattan", "pattern-database", "linear-conflict", "max" })
+	public String heuristic;
+
+	@Param({ "8", "16", "24" })
+	public int depth;
+
+	private Bridge game;
+	private Object[] boards;
+	private Object goal;
+
+	@Setup
+	public void setup() {
+		game = Bridge.load();
+		int[][] corpus = Corpus.eightPuzzlesAtDepth(game, 1000 + depth, depth, BOARDS);
+		boards = new Object[BOARDS];
+		for (int i = 0; i < BOARDS; i++)
+			boards[i] = game.board(corpus[i]);
+		goal = game.board(new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 0 });
+		// the first solve creates the pattern databases, which should not be measured
+		if (game.solve(boards[0], goal, heuristic) != depth)
+			throw new IllegalStateException("The solver did not find an optimal solution");
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BOARDS)
+	public int solve() {
+		int moves = 0;
+		for (Object board : boards)
+			moves += game.solve(board, goal, heuristic);
+		return moves;
+	}
+}